@@ -0,0 +1,49 @@
+package com.unisew.account_service.components;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Set<String> emails = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean loaded;
+
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        jdbcTemplate.query("SELECT email FROM account", rs -> {
+            add(rs.getString(1));
+        });
+        loaded = true;
+        log.info("Email index loaded with {} accounts", emails.size());
+    }
+
+    // False means the email is definitely not registered; true means ask the database.
+    // Until the index is loaded every email is treated as possibly registered.
+    public boolean mightExist(String email) {
+        return !loaded || emails.contains(normalize(email));
+    }
+
+    public void add(String email) {
+        if (email != null) {
+            emails.add(normalize(email));
+        }
+    }
+}
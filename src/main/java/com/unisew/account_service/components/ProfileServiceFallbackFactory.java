@@ -0,0 +1,50 @@
+package com.unisew.account_service.components;
+
+import com.unisew.account_service.requests.CreateProfileRequest;
+import com.unisew.account_service.services.ProfileService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads degrade to accounts without a partner, writes still fail so no profile is silently lost
+@Component
+@Slf4j
+public class ProfileServiceFallbackFactory implements FallbackFactory<ProfileService> {
+
+    @Override
+    public ProfileService create(Throwable cause) {
+        return new ProfileService() {
+            @Override
+            public Map<String, Object> createProfile(CreateProfileRequest request) {
+                throw rethrow(cause);
+            }
+
+            @Override
+            public Map<String, Object> getProfile(int accountId) {
+                log.warn("Profile of account {} unavailable: {}", accountId, cause.toString());
+                return null;
+            }
+
+            @Override
+            public List<Map<String, Object>> createProfiles(List<CreateProfileRequest> requests) {
+                throw rethrow(cause);
+            }
+
+            @Override
+            public Map<Integer, Map<String, Object>> getProfiles(List<Integer> accountIds) {
+                log.warn("Profiles of {} accounts unavailable: {}", accountIds.size(), cause.toString());
+                return new HashMap<>();
+            }
+        };
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        return cause instanceof RuntimeException runtimeException
+                ? runtimeException
+                : new RuntimeException("Profile service call failed: " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,104 @@
+package com.unisew.account_service.components;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.unisew.account_service.projections.WalletBalance;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Read-through cache of wallet balances. Account ids are spread over version stripes: a write
+// marks its stripes as busy until its transaction ends, then bumps their version and evicts its
+// wallets. Reads of a busy stripe go to the database, and a loaded balance is only stored if
+// its stripe version did not move while it was being read, so no entry outlives a write committed
+// through this instance. Writes made by other instances are not seen until the TTL expires, so the
+// cache is for single-instance deployments only; set cache.wallet_balance.enabled=false to run more.
+@Component
+@RequiredArgsConstructor
+public class VersionedBalanceCache {
+
+    private final Cache<Integer, WalletBalance> walletBalanceCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cache.wallet_balance.version_stripes:4096}")
+    private int stripeCount;
+
+    @Value("${cache.wallet_balance.enabled:true}")
+    private boolean enabled;
+
+    private AtomicLongArray versions;
+    private AtomicIntegerArray writers;
+    private Counter bypassed;
+
+    @PostConstruct
+    public void init() {
+        versions = new AtomicLongArray(stripeCount);
+        writers = new AtomicIntegerArray(stripeCount);
+        bypassed = Counter.builder("wallet.balance.cache.bypassed")
+                .description("Balance reads sent to the database because a write to the wallet was in flight")
+                .register(meterRegistry);
+    }
+
+    public Optional<WalletBalance> get(Integer accountId, Supplier<Optional<WalletBalance>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        int stripe = stripe(accountId);
+        if (writers.get(stripe) != 0) {
+            bypassed.increment();
+            return loader.get();
+        }
+        long version = versions.get(stripe);
+        WalletBalance cached = walletBalanceCache.getIfPresent(accountId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<WalletBalance> loaded = loader.get();
+        loaded.ifPresent(balance -> walletBalanceCache.asMap().compute(accountId, (id, current) ->
+                writers.get(stripe) == 0 && versions.get(stripe) == version ? balance : current));
+        return loaded;
+    }
+
+    // Called by every balance write from inside its transaction
+    public void invalidateOnCommit(Collection<Integer> accountIds) {
+        List<Integer> ids = List.copyOf(accountIds);
+        List<Integer> stripes = ids.stream().map(this::stripe).toList();
+        stripes.forEach(writers::incrementAndGet);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(ids, stripes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(ids, stripes);
+            }
+        });
+    }
+
+    public void invalidateOnCommit(Integer accountId) {
+        invalidateOnCommit(List.of(accountId));
+    }
+
+    private void release(List<Integer> accountIds, List<Integer> stripes) {
+        stripes.forEach(versions::incrementAndGet);
+        walletBalanceCache.invalidateAll(accountIds);
+        stripes.forEach(writers::decrementAndGet);
+    }
+
+    private int stripe(Integer accountId) {
+        return Math.floorMod(accountId.hashCode(), stripeCount);
+    }
+}
@@ -0,0 +1,102 @@
+package com.unisew.account_service.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.unisew.account_service.models.IdempotencyKey;
+import com.unisew.account_service.projections.WalletBalance;
+import com.unisew.account_service.responses.GoogleAccessToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean(name = "internalAccountCache")
+    public Cache<Integer, Map<String, Object>> internalAccountCache(
+            MeterRegistry meterRegistry,
+            @Value("${cache.internal_account.max_size:10000}") long maxSize,
+            @Value("${cache.internal_account.ttl_seconds:300}") long ttlSeconds
+    ) {
+        Cache<Integer, Map<String, Object>> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "internalAccount");
+    }
+
+    @Bean(name = "profileCache")
+    public AsyncCache<Integer, Map<String, Object>> profileCache(
+            MeterRegistry meterRegistry,
+            @Value("${cache.profile.max_size:10000}") long maxSize,
+            @Value("${cache.profile.ttl_seconds:5}") long ttlSeconds
+    ) {
+        AsyncCache<Integer, Map<String, Object>> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "profile");
+        return cache;
+    }
+
+    @Bean(name = "googleAccessTokenCache")
+    public AsyncCache<Integer, GoogleAccessToken> googleAccessTokenCache(
+            MeterRegistry meterRegistry,
+            @Qualifier("remoteCallExecutor") Executor remoteCallExecutor,
+            @Value("${cache.google_token.max_size:10000}") long maxSize,
+            @Value("${cache.google_token.expiry_margin_seconds:60}") long marginSeconds
+    ) {
+        // Each token lives for its own expires_in, minus a margin so callers never get one about to lapse.
+        // Exchanges run on the remote call pool rather than the common pool.
+        AsyncCache<Integer, GoogleAccessToken> cache = Caffeine.newBuilder()
+                .executor(remoteCallExecutor)
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((Integer accountId, GoogleAccessToken token) ->
+                        Duration.ofSeconds(Math.max(0, token.getExpiresIn() - marginSeconds))))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "googleAccessToken");
+        return cache;
+    }
+
+    @Bean(name = "idempotencyCache")
+    public Cache<String, IdempotencyKey> idempotencyCache(
+            MeterRegistry meterRegistry,
+            @Value("${cache.idempotency.max_size:100000}") long maxSize,
+            @Value("${idempotency.retention_hours:24}") long retentionHours
+    ) {
+        // Never outlives the stored key, so a purged key cannot still be replayed from memory
+        Cache<String, IdempotencyKey> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofHours(retentionHours))
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency");
+    }
+
+    @Bean(name = "walletBalanceCache")
+    public Cache<Integer, WalletBalance> walletBalanceCache(
+            MeterRegistry meterRegistry,
+            @Value("${cache.wallet_balance.max_size:100000}") long maxSize,
+            @Value("${cache.wallet_balance.ttl_seconds:600}") long ttlSeconds
+    ) {
+        // Writes through this instance evict on commit, the TTL only bounds changes made anywhere else
+        Cache<Integer, WalletBalance> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "walletBalance");
+    }
+}
@@ -0,0 +1,85 @@
+package com.unisew.account_service.config;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4jBulkheadProvider;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.cloud.openfeign.CircuitBreakerNameResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ResilienceConfig {
+
+    public static final String PROFILE_SERVICE = "profile-service";
+    public static final String DESIGN_SERVICE = "design-service";
+    public static final String ORDER_SERVICE = "order-service";
+
+    // One breaker, bulkhead and time limiter per downstream service instead of one per Feign method
+    @Bean
+    public CircuitBreakerNameResolver circuitBreakerNameResolver() {
+        return (feignClientName, target, method) -> feignClientName;
+    }
+
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> remoteServiceCircuitBreakers(
+            @Value("${circuit_breaker.failure_rate_threshold:50}") float failureRateThreshold,
+            @Value("${circuit_breaker.sliding_window_size:20}") int slidingWindowSize,
+            @Value("${circuit_breaker.minimum_calls:10}") int minimumCalls,
+            @Value("${circuit_breaker.open_seconds:10}") long openSeconds,
+            @Value("${remote.profile.timeout_ms:2000}") long profileTimeoutMs,
+            @Value("${remote.design.timeout_ms:3000}") long designTimeoutMs,
+            @Value("${remote.order.timeout_ms:3000}") long orderTimeoutMs
+    ) {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(Duration.ofSeconds(openSeconds))
+                .build();
+        return factory -> {
+            factory.configure(builder -> builder
+                    .circuitBreakerConfig(circuitBreakerConfig)
+                    .timeLimiterConfig(timeLimiter(profileTimeoutMs)), PROFILE_SERVICE);
+            factory.configure(builder -> builder
+                    .circuitBreakerConfig(circuitBreakerConfig)
+                    .timeLimiterConfig(timeLimiter(designTimeoutMs)), DESIGN_SERVICE);
+            factory.configure(builder -> builder
+                    .circuitBreakerConfig(circuitBreakerConfig)
+                    .timeLimiterConfig(timeLimiter(orderTimeoutMs)), ORDER_SERVICE);
+        };
+    }
+
+    @Bean
+    public Customizer<Resilience4jBulkheadProvider> remoteServiceBulkheads(
+            @Value("${remote.profile.max_concurrent:20}") int profileMaxConcurrent,
+            @Value("${remote.design.max_concurrent:10}") int designMaxConcurrent,
+            @Value("${remote.order.max_concurrent:10}") int orderMaxConcurrent
+    ) {
+        return provider -> {
+            provider.configure(builder -> builder.threadPoolBulkheadConfig(bulkhead(profileMaxConcurrent)), PROFILE_SERVICE);
+            provider.configure(builder -> builder.threadPoolBulkheadConfig(bulkhead(designMaxConcurrent)), DESIGN_SERVICE);
+            provider.configure(builder -> builder.threadPoolBulkheadConfig(bulkhead(orderMaxConcurrent)), ORDER_SERVICE);
+        };
+    }
+
+    private static TimeLimiterConfig timeLimiter(long timeoutMs) {
+        return TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(timeoutMs))
+                .build();
+    }
+
+    // Calls beyond the pool and its equally sized queue are rejected straight into the fallback
+    private static ThreadPoolBulkheadConfig bulkhead(int maxConcurrent) {
+        return ThreadPoolBulkheadConfig.custom()
+                .coreThreadPoolSize(maxConcurrent)
+                .maxThreadPoolSize(maxConcurrent)
+                .queueCapacity(maxConcurrent)
+                .build();
+    }
+}
@@ -1,37 +1,67 @@
 package com.unisew.account_service.controllers;
 
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
 import com.unisew.account_service.requests.AccountRequestDTO;
+import com.unisew.account_service.requests.BulkStatusRequest;
 import com.unisew.account_service.requests.CreateAccountRequest;
 import com.unisew.account_service.responses.AccountResponseDTO;
 import com.unisew.account_service.responses.ResponseObject;
+import com.unisew.account_service.services.AccountImportService;
 import com.unisew.account_service.services.AccountService;
 import com.unisew.account_service.utils.ResponseBuilder;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/acc")
 @Slf4j
 public class AccountController {
     private final AccountService accountService;
+    private final AccountImportService accountImportService;
 
     @PostMapping("")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ResponseObject> createAccount(@RequestBody CreateAccountRequest request) {
-        return accountService.createAccount(request);
+        try {
+            return accountService.createAccount(request);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Duplicate email rejected by database: {}", request.getEmail());
+            return ResponseBuilder.build(HttpStatus.OK, "This email is already registered", null);
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseObject> importAccounts(@RequestBody List<CreateAccountRequest> requests) {
+        return accountImportService.importAccounts(requests);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseObject> importAccountsCsv(@RequestBody String csv) {
+        return accountImportService.importAccountsCsv(csv);
     }
 
     @GetMapping("/{id}")
@@ -49,6 +79,12 @@ public class AccountController {
        return accountService.updateAccount(id, request);
     }
 
+    @PatchMapping("/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseObject> updateAccountStatuses(@RequestBody BulkStatusRequest request) {
+        return accountService.updateAccountStatuses(request);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ResponseObject> deleteAccount(@PathVariable Integer id) {
@@ -75,6 +111,18 @@ public class AccountController {
         return accountService.getAllAccounts();
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseObject> getAccountPage(
+            @RequestParam(name = "cursor", required = false) Integer cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "role", required = false) Role role,
+            @RequestParam(name = "status", required = false) Status status,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate registeredFrom,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate registeredTo) {
+        return accountService.getAccountPage(cursor, size, role, status, registeredFrom, registeredTo);
+    }
+
     @GetMapping("/email/{email}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<AccountResponseDTO> getAccountByEmail(@PathVariable String email) {
@@ -3,15 +3,20 @@ package com.unisew.account_service.controllers;
 import com.unisew.account_service.responses.ResponseObject;
 import com.unisew.account_service.services.AccountService;
 import com.unisew.account_service.services.AuthService;
+import com.unisew.account_service.utils.ResponseBuilder;
 import io.swagger.v3.oas.annotations.Hidden;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -28,6 +33,16 @@ public class InternalController {
         return accountService.getAccountById(id);
     }
 
+    @Hidden
+    @PostMapping("/batch")
+    public ResponseEntity<?> getAccountsByIds(@RequestBody List<Integer> ids) {
+        try {
+            return ResponseEntity.ok(accountService.getAccountsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseBuilder.build(HttpStatus.BAD_REQUEST, e.getMessage(), null);
+        }
+    }
+
     @Hidden
     @GetMapping("/google-access-token/{accountId}")
     public ResponseEntity<ResponseObject> getGoogleAccessToken(@PathVariable int accountId) {
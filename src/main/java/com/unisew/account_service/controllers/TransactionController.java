@@ -1,20 +1,32 @@
 package com.unisew.account_service.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unisew.account_service.enums.StatementFormat;
 import com.unisew.account_service.enums.Status;
 import com.unisew.account_service.models.Transaction;
 import com.unisew.account_service.requests.TransactionDTO;
 import com.unisew.account_service.responses.ResponseObject;
 import com.unisew.account_service.responses.TransactionResponseDTO;
+import com.unisew.account_service.services.StatementService;
 import com.unisew.account_service.services.TransactionService;
 import com.unisew.account_service.utils.ResponseBuilder;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -27,6 +39,13 @@ public class TransactionController {
     
     private final TransactionService transactionService;
 
+    private final StatementService statementService;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${statement.timeout_ms:600000}")
+    private long statementTimeoutMs;
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ResponseObject> getTransactionById(@PathVariable Integer id) {
@@ -96,6 +115,49 @@ public class TransactionController {
         }
     }
 
+    @GetMapping("/wallet/{walletId}/statement")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> getWalletStatement(
+            @PathVariable Integer walletId,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "format", defaultValue = "csv") String format,
+            HttpServletRequest request) {
+        StatementFormat statementFormat;
+        try {
+            statementFormat = StatementFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return statementError(HttpStatus.BAD_REQUEST, "Invalid statement format: " + format);
+        }
+        try {
+            statementService.checkStatement(walletId, from, to);
+        } catch (IllegalArgumentException e) {
+            return statementError(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RuntimeException e) {
+            return statementError(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+
+        log.info("Streaming {} statement for wallet ID {} from {} to {}", statementFormat, walletId, from, to);
+        StreamingResponseBody body = out -> statementService.writeStatement(walletId, from, to, statementFormat, out);
+        // Long statements need more than the default async timeout, which every other endpoint keeps
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(statementTimeoutMs);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(statementFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("statement-" + walletId + "-" + from + "-" + to + "." + statementFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    // Streaming is picked by the declared body type, so errors from this endpoint are streamed as well
+    private ResponseEntity<StreamingResponseBody> statementError(HttpStatus status, String message) {
+        ResponseObject error = ResponseBuilder.build(status, message, null).getBody();
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, error));
+    }
+
     @PatchMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ResponseObject> updateTransactionStatus(
@@ -2,20 +2,31 @@ package com.unisew.account_service.controllers;
 
 import com.unisew.account_service.models.Transaction;
 import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.models.WalletHold;
+import com.unisew.account_service.requests.HoldRequest;
+import com.unisew.account_service.requests.PayoutRequest;
 import com.unisew.account_service.requests.WalletRequestDTO;
+import com.unisew.account_service.responses.HoldResponseDTO;
+import com.unisew.account_service.responses.PayoutResponseDTO;
 import com.unisew.account_service.responses.ResponseObject;
 import com.unisew.account_service.responses.TransactionResponseDTO;
+import com.unisew.account_service.responses.WalletPageDTO;
 import com.unisew.account_service.responses.WalletResponseDTO;
+import com.unisew.account_service.services.EscrowService;
+import com.unisew.account_service.services.IdempotencyService;
+import com.unisew.account_service.services.LedgerService;
 import com.unisew.account_service.services.WalletService;
 import com.unisew.account_service.utils.ResponseBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,9 +38,16 @@ public class WalletController {
     
     private final WalletService walletService;
 
+    private final IdempotencyService idempotencyService;
+
+    private final EscrowService escrowService;
+
+    private final LedgerService ledgerService;
+
     @PostMapping("/deposit")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ResponseObject> deposit(@Valid @RequestBody WalletRequestDTO request) {
+    public ResponseEntity<ResponseObject> deposit(@Valid @RequestBody WalletRequestDTO request,
+                                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
             log.info("Processing deposit request for account ID: {} with amount: {}", 
                     request.getSenderAccountId(), request.getAmount());
@@ -38,11 +56,10 @@ public class WalletController {
                 return ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Deposit amount must be positive", null);
             }
             
-            Wallet updatedWallet = walletService.deposit(request.getSenderAccountId(), request.getAmount());
-            WalletResponseDTO response = mapToWalletResponseDTO(updatedWallet);
+            Object response = idempotencyService.execute(idempotencyKey, "deposit", request,
+                    () -> mapToWalletResponseDTO(walletService.deposit(request.getSenderAccountId(), request.getAmount())));
             
-            log.info("Deposit successful for account ID: {}. New balance: {}", 
-                    request.getSenderAccountId(), updatedWallet.getBalance());
+            log.info("Deposit successful for account ID: {}", request.getSenderAccountId());
             return ResponseBuilder.build(HttpStatus.OK, "Deposit successful", response);
             
         } catch (IllegalArgumentException e) {
@@ -60,7 +77,8 @@ public class WalletController {
 
     @PostMapping("/withdraw")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ResponseObject> withdraw(@Valid @RequestBody WalletRequestDTO request) {
+    public ResponseEntity<ResponseObject> withdraw(@Valid @RequestBody WalletRequestDTO request,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
             log.info("Processing withdraw request for account ID: {} with amount: {}", 
                     request.getSenderAccountId(), request.getAmount());
@@ -69,11 +87,10 @@ public class WalletController {
                 return ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Withdraw amount must be positive", null);
             }
             
-            Wallet updatedWallet = walletService.withdraw(request.getSenderAccountId(), request.getAmount());
-            WalletResponseDTO response = mapToWalletResponseDTO(updatedWallet);
+            Object response = idempotencyService.execute(idempotencyKey, "withdraw", request,
+                    () -> mapToWalletResponseDTO(walletService.withdraw(request.getSenderAccountId(), request.getAmount())));
             
-            log.info("Withdraw successful for account ID: {}. New balance: {}", 
-                    request.getSenderAccountId(), updatedWallet.getBalance());
+            log.info("Withdraw successful for account ID: {}", request.getSenderAccountId());
             return ResponseBuilder.build(HttpStatus.OK, "Withdraw successful", response);
             
         } catch (IllegalArgumentException e) {
@@ -91,7 +108,8 @@ public class WalletController {
 
     @PostMapping("/transfer")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ResponseObject> transfer(@Valid @RequestBody WalletRequestDTO request) {
+    public ResponseEntity<ResponseObject> transfer(@Valid @RequestBody WalletRequestDTO request,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
             log.info("Processing transfer request from account ID: {} to account ID: {} with amount: {}", 
                     request.getSenderAccountId(), request.getReceiverAccountId(), request.getAmount());
@@ -104,16 +122,15 @@ public class WalletController {
                 return ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Cannot transfer to the same account", null);
             }
             
-            List<Transaction> transactions = walletService.transfer(
-                    request.getSenderAccountId(), 
-                    request.getReceiverAccountId(), 
-                    request.getAmount(), 
-                    request.getNote()
-            );
-            
-            List<TransactionResponseDTO> responseList = transactions.stream()
-                    .map(this::mapToTransactionResponseDTO)
-                    .collect(Collectors.toList());
+            Object responseList = idempotencyService.execute(idempotencyKey, "transfer", request,
+                    () -> walletService.transfer(
+                            request.getSenderAccountId(),
+                            request.getReceiverAccountId(),
+                            request.getAmount(),
+                            request.getNote()
+                    ).stream()
+                            .map(this::mapToTransactionResponseDTO)
+                            .collect(Collectors.toList()));
             
             log.info("Transfer successful from account ID: {} to account ID: {} with amount: {}", 
                     request.getSenderAccountId(), request.getReceiverAccountId(), request.getAmount());
@@ -131,6 +148,94 @@ public class WalletController {
         }
     }
 
+    @PostMapping("/payout")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseObject> payout(@RequestBody PayoutRequest request,
+                                                 @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        try {
+            log.info("Processing payout from account ID: {} to {} recipients",
+                    request.getSourceAccountId(), request.getItems() == null ? 0 : request.getItems().size());
+
+            Object response = idempotencyService.execute(idempotencyKey, "payout", request, () -> walletService.payout(request));
+            if (response instanceof PayoutResponseDTO payout && !payout.isCompleted()) {
+                log.warn("Payout from account ID {} was not applied: {}", request.getSourceAccountId(), payout.getMessage());
+                return ResponseBuilder.build(HttpStatus.BAD_REQUEST, payout.getMessage(), payout);
+            }
+
+            log.info("Payout successful from account ID: {}", request.getSourceAccountId());
+            return ResponseBuilder.build(HttpStatus.OK, "Payout completed", response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid payout request: {}", e.getMessage());
+            return ResponseBuilder.build(HttpStatus.BAD_REQUEST, e.getMessage(), null);
+        } catch (RuntimeException e) {
+            log.error("Error processing payout: {}", e.getMessage());
+            return ResponseBuilder.build(HttpStatus.BAD_REQUEST, e.getMessage(), null);
+        } catch (Exception e) {
+            log.error("Error processing payout: {}", e.getMessage(), e);
+            return ResponseBuilder.build(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to process payout: " + e.getMessage(), null);
+        }
+    }
+
+    @PostMapping("/holds")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseObject> hold(@RequestBody HoldRequest request,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        try {
+            log.info("Processing hold of {} from account ID: {} for account ID: {}",
+                    request.getAmount(), request.getPayerAccountId(), request.getPayeeAccountId());
+
+            Object response = idempotencyService.execute(idempotencyKey, "hold", request,
+                    () -> mapToHoldResponseDTO(escrowService.hold(
+                            request.getPayerAccountId(),
+                            request.getPayeeAccountId(),
+                            request.getAmount(),
+                            request.getItemId(),
+                            request.getNote()
+                    )));
+
+            return ResponseBuilder.build(HttpStatus.OK, "Funds held", response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid hold request: {}", e.getMessage());
+            return ResponseBuilder.build(HttpStatus.BAD_REQUEST, e.getMessage(), null);
+        } catch (RuntimeException e) {
+            log.error("Error processing hold: {}", e.getMessage());
+            return ResponseBuilder.build(HttpStatus.BAD_REQUEST, e.getMessage(), null);
+        } catch (Exception e) {
+            log.error("Error processing hold: {}", e.getMessage(), e);
+            return ResponseBuilder.build(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to process hold: " + e.getMessage(), null);
+        }
+    }
+
+    @PostMapping("/holds/{holdId}/capture")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseObject> captureHold(@PathVariable Integer holdId) {
+        try {
+            String status = escrowService.capture(holdId).getValue();
+            log.info("Capture requested for hold ID: {}", holdId);
+            return ResponseBuilder.build(HttpStatus.OK, "Capture accepted",
+                    HoldResponseDTO.builder().id(holdId).status(status).build());
+        } catch (RuntimeException e) {
+            log.error("Error capturing hold ID {}: {}", holdId, e.getMessage());
+            return ResponseBuilder.build(HttpStatus.BAD_REQUEST, e.getMessage(), null);
+        }
+    }
+
+    @PostMapping("/holds/{holdId}/release")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseObject> releaseHold(@PathVariable Integer holdId) {
+        try {
+            String status = escrowService.release(holdId).getValue();
+            log.info("Release requested for hold ID: {}", holdId);
+            return ResponseBuilder.build(HttpStatus.OK, "Release accepted",
+                    HoldResponseDTO.builder().id(holdId).status(status).build());
+        } catch (RuntimeException e) {
+            log.error("Error releasing hold ID {}: {}", holdId, e.getMessage());
+            return ResponseBuilder.build(HttpStatus.BAD_REQUEST, e.getMessage(), null);
+        }
+    }
+
     @GetMapping("/{accountId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ResponseObject> getWalletByAccountId(@PathVariable Integer accountId) {
@@ -156,11 +261,22 @@ public class WalletController {
 
     @GetMapping("/{accountId}/balance")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ResponseObject> getWalletBalance(@PathVariable Integer accountId) {
+    public ResponseEntity<ResponseObject> getWalletBalance(
+            @PathVariable Integer accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf
+    ) {
         try {
             log.info("Fetching wallet balance for account ID: {}", accountId);
+
+            if (asOf != null) {
+                if (walletService.getBalance(accountId).isEmpty()) {
+                    return ResponseBuilder.build(HttpStatus.NOT_FOUND, "Wallet not found", null);
+                }
+                WalletResponseDTO response = mapToWalletResponseDTO(ledgerService.getBalanceAsOf(accountId, asOf));
+                return ResponseBuilder.build(HttpStatus.OK, "Wallet balance retrieved successfully", response);
+            }
             
-            return walletService.getWalletByAccountId(accountId)
+            return walletService.getBalance(accountId)
                     .map(wallet -> {
                         WalletResponseDTO response = mapToWalletResponseDTO(wallet);
                         log.info("Wallet balance retrieved for account ID: {}", accountId);
@@ -197,6 +313,26 @@ public class WalletController {
         }
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseObject> getWalletPage(
+            @RequestParam(name = "cursor", required = false) Integer cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "minBalance", required = false) Long minBalance,
+            @RequestParam(name = "maxBalance", required = false) Long maxBalance
+    ) {
+        try {
+            WalletPageDTO page = walletService.getWalletPage(cursor, size, minBalance, maxBalance);
+            return ResponseBuilder.build(HttpStatus.OK,
+                    page.getWallets().isEmpty() ? "No wallets found" : "Wallets retrieved successfully", page);
+        } catch (IllegalArgumentException e) {
+            return ResponseBuilder.build(HttpStatus.BAD_REQUEST, e.getMessage(), null);
+        } catch (Exception e) {
+            log.error("Error retrieving wallet page: {}", e.getMessage(), e);
+            return ResponseBuilder.build(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve wallets: " + e.getMessage(), null);
+        }
+    }
+
     private WalletResponseDTO mapToWalletResponseDTO(Wallet wallet) {
         return WalletResponseDTO.builder()
                 .id(wallet.getId())
@@ -205,6 +341,18 @@ public class WalletController {
                 .build();
     }
 
+    private HoldResponseDTO mapToHoldResponseDTO(WalletHold hold) {
+        return HoldResponseDTO.builder()
+                .id(hold.getId())
+                .payerAccountId(hold.getPayer().getId())
+                .payeeAccountId(hold.getPayee().getId())
+                .amount(hold.getAmount())
+                .itemId(hold.getItemId())
+                .status(hold.getStatus().getValue())
+                .expiresAt(hold.getExpiresAt())
+                .build();
+    }
+
     private TransactionResponseDTO mapToTransactionResponseDTO(Transaction transaction) {
         return TransactionResponseDTO.builder()
                 .id(transaction.getId())
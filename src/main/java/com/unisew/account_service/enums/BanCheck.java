@@ -0,0 +1,17 @@
+package com.unisew.account_service.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum BanCheck {
+
+    SAFE("safe"),
+    UNSAFE_DESIGN("unsafe_design"),     // Has a design which is not completed yet
+    UNSAFE_ORDER("unsafe_order"),       // Has an order which is not completed yet
+    UNAVAILABLE("unavailable"),         // A check failed or timed out, treated as not safe
+    UNKNOWN("unknown");                 // Nothing was given to check against, treated as not safe
+
+    private final String value;
+}
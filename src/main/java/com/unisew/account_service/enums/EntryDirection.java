@@ -0,0 +1,14 @@
+package com.unisew.account_service.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum EntryDirection {
+
+    DEBIT("debit"),   // Lowers the book it is posted to
+    CREDIT("credit"); // Raises the book it is posted to
+
+    private final String value;
+}
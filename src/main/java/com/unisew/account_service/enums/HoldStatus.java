@@ -0,0 +1,18 @@
+package com.unisew.account_service.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum HoldStatus {
+
+    HELD("held"),           // Funds moved from balance to pending balance
+    CAPTURING("capturing"), // Capture requested, waiting for the next settlement batch
+    RELEASING("releasing"), // Release requested, waiting for the next settlement batch
+    CAPTURED("captured"),   // Funds paid to the payee
+    RELEASED("released"),   // Funds returned to the payer
+    EXPIRED("expired");     // Never captured in time, funds returned to the payer
+
+    private final String value;
+}
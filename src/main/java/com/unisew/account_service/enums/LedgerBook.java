@@ -0,0 +1,15 @@
+package com.unisew.account_service.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum LedgerBook {
+
+    AVAILABLE("available"), // Mirrors Wallet.balance
+    PENDING("pending"),     // Mirrors Wallet.pendingBalance
+    EXTERNAL("external");   // Money entering or leaving the platform, has no wallet
+
+    private final String value;
+}
@@ -1,5 +1,6 @@
 package com.unisew.account_service.models;
 
+import com.unisew.account_service.components.EmailIndex;
 import com.unisew.account_service.enums.Role;
 import com.unisew.account_service.enums.Status;
 import jakarta.persistence.CascadeType;
@@ -11,9 +12,13 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.PrimaryKeyJoinColumn;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -32,16 +37,23 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "`account`")
+@Table(name = "`account`", indexes = {
+        @Index(name = "idx_account_email", columnList = "`email_key`", unique = true)
+})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "`account_seq`", allocationSize = 50)
     Integer id;
 
     String email;
 
+    // Trimmed and lower-cased copy of email, the one lookups and the unique index use
+    @Column(name = "`email_key`", nullable = false)
+    String emailKey;
+
     @Enumerated(EnumType.STRING)
     Role role;
 
@@ -69,4 +81,10 @@ public class Account {
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     List<Transaction> receiverTransactions;
+
+    @PrePersist
+    @PreUpdate
+    void normalizeEmail() {
+        emailKey = EmailIndex.normalize(email);
+    }
 }
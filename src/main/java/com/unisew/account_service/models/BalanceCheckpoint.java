@@ -0,0 +1,48 @@
+package com.unisew.account_service.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+// A wallet's balances over every ledger entry up to lastEntryId, all of which were created at or before asOf
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "`balance_checkpoint`", indexes = {
+        @Index(name = "idx_balance_checkpoint_wallet_id", columnList = "`wallet_id`, `last_entry_id`")
+})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BalanceCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "`wallet_id`")
+    Integer walletId;
+
+    @Column(name = "`last_entry_id`")
+    Long lastEntryId;
+
+    @Column(name = "`as_of`")
+    LocalDateTime asOf;
+
+    long balance;
+
+    @Column(name = "`pending_balance`")
+    long pendingBalance;
+}
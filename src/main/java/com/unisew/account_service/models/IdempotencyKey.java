@@ -0,0 +1,41 @@
+package com.unisew.account_service.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "`idempotency_key`", indexes = {
+        @Index(name = "idx_idempotency_key_created_at", columnList = "`created_at`")
+})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class IdempotencyKey {
+
+    @Id
+    // The caller's account id followed by the client's key
+    @Column(name = "`idempotency_key`", length = 120)
+    String key;
+
+    @Column(name = "`request_fingerprint`", length = 80)
+    String fingerprint;
+
+    @Column(name = "`response`", columnDefinition = "TEXT")
+    String response;
+
+    @Column(name = "`created_at`")
+    LocalDateTime createdAt;
+}
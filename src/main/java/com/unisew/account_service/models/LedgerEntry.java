@@ -0,0 +1,63 @@
+package com.unisew.account_service.models;
+
+import com.unisew.account_service.enums.EntryDirection;
+import com.unisew.account_service.enums.LedgerBook;
+import com.unisew.account_service.enums.PaymentType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Append-only, rows are written in batches by LedgerJdbcRepo and never updated
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Immutable
+@Table(name = "`ledger_entry`", indexes = {
+        @Index(name = "idx_ledger_entry_wallet_id", columnList = "`wallet_id`, id"),
+        @Index(name = "idx_ledger_entry_created_at", columnList = "`created_at`")
+})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "`movement_id`", length = 36)
+    String movementId;
+
+    @Column(name = "`wallet_id`")
+    Integer walletId;
+
+    @Enumerated(EnumType.STRING)
+    LedgerBook book;
+
+    @Enumerated(EnumType.STRING)
+    EntryDirection direction;
+
+    long amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "`payment_type`")
+    PaymentType paymentType;
+
+    @Column(name = "`created_at`")
+    LocalDateTime createdAt;
+}
@@ -9,6 +9,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -26,7 +27,9 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "`transaction`")
+@Table(name = "`transaction`", indexes = {
+        @Index(name = "idx_transaction_wallet_id", columnList = "`wallet_id`, `creation_date`, id")
+})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Transaction {
 
@@ -22,7 +22,6 @@ import java.util.List;
 public class Wallet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "`account_id`")
     Integer id;
 
@@ -0,0 +1,76 @@
+package com.unisew.account_service.models;
+
+import com.unisew.account_service.enums.HoldStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "`wallet_hold`", indexes = {
+        @Index(name = "idx_wallet_hold_status_expires_at", columnList = "status, `expires_at`")
+})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class WalletHold {
+
+    public static final String PAYEE_FOREIGN_KEY = "fk_wallet_hold_payee";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Integer id;
+
+    long amount;
+
+    @Enumerated(EnumType.STRING)
+    HoldStatus status;
+
+    String note;
+
+    @Column(name = "`item_id`")
+    Integer itemId;
+
+    @Column(name = "`created_at`")
+    LocalDateTime createdAt;
+
+    @Column(name = "`expires_at`")
+    LocalDateTime expiresAt;
+
+    @Column(name = "`settled_at`")
+    LocalDateTime settledAt;
+
+    // The foreign keys reject a hold for a missing wallet without reading it first
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "`payer_id`")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    Wallet payer;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "`payee_id`", foreignKey = @ForeignKey(name = WalletHold.PAYEE_FOREIGN_KEY))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    Wallet payee;
+}
@@ -0,0 +1,15 @@
+package com.unisew.account_service.projections;
+
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
+
+import java.time.LocalDate;
+
+public interface AccountAuthView {
+    Integer getId();
+    String getEmail();
+    Role getRole();
+    LocalDate getRegisterDate();
+    Status getStatus();
+    String getGgRefreshToken();
+}
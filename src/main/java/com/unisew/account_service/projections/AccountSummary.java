@@ -0,0 +1,14 @@
+package com.unisew.account_service.projections;
+
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
+
+import java.time.LocalDate;
+
+public interface AccountSummary {
+    Integer getId();
+    String getEmail();
+    Role getRole();
+    LocalDate getRegisterDate();
+    Status getStatus();
+}
@@ -0,0 +1,10 @@
+package com.unisew.account_service.projections;
+
+public interface HoldSettlement {
+    Integer getId();
+    Integer getPayerId();
+    Integer getPayeeId();
+    long getAmount();
+    Integer getItemId();
+    String getNote();
+}
@@ -0,0 +1,7 @@
+package com.unisew.account_service.projections;
+
+public interface LedgerTotals {
+    Integer getWalletId();
+    Long getBalance();
+    Long getPendingBalance();
+}
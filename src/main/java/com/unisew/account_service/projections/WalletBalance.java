@@ -0,0 +1,7 @@
+package com.unisew.account_service.projections;
+
+public interface WalletBalance {
+    Integer getId();
+    long getBalance();
+    long getPendingBalance();
+}
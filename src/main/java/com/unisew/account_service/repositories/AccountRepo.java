@@ -1,12 +1,73 @@
 package com.unisew.account_service.repositories;
 
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
 import com.unisew.account_service.models.Account;
+import com.unisew.account_service.projections.AccountAuthView;
+import com.unisew.account_service.projections.AccountSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepo extends JpaRepository<Account, Integer> {
-    Optional<Account> findByEmail(String email);
+    Optional<Account> findByEmailKey(String emailKey);
 
-    boolean existsByEmail(String email);
+    boolean existsByEmailKey(String emailKey);
+
+    List<Account> findAllByRoleNot(Role role);
+
+    Optional<AccountSummary> findSummaryById(Integer id);
+
+    Optional<AccountAuthView> findAuthViewByEmailKey(String emailKey);
+
+    List<AccountSummary> findSummariesByIdIn(Collection<Integer> ids);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Account a SET a.status = :status WHERE a.id = :id")
+    int updateStatus(@Param("id") Integer id, @Param("status") Status status);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Account a SET a.ggRefreshToken = :refreshToken WHERE a.id = :id")
+    int updateRefreshToken(@Param("id") Integer id, @Param("refreshToken") String refreshToken);
+
+    @Query("SELECT a.emailKey FROM Account a WHERE a.emailKey IN :emailKeys")
+    List<String> findExistingEmailKeys(@Param("emailKeys") Collection<String> emailKeys);
+
+    @Query("SELECT a.id FROM Account a WHERE a.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Account a SET a.status = :status WHERE a.id IN :ids")
+    int updateStatusIn(@Param("ids") Collection<Integer> ids, @Param("status") Status status);
+
+    @Query("""
+            SELECT a.id AS id, a.email AS email, a.role AS role, a.registerDate AS registerDate, a.status AS status
+            FROM Account a
+            WHERE a.id > :afterId
+              AND a.role <> com.unisew.account_service.enums.Role.ADMIN
+              AND (:role IS NULL OR a.role = :role)
+              AND (:status IS NULL OR a.status = :status)
+              AND (CAST(:registeredFrom AS LocalDate) IS NULL OR a.registerDate >= :registeredFrom)
+              AND (CAST(:registeredTo AS LocalDate) IS NULL OR a.registerDate <= :registeredTo)
+            ORDER BY a.id
+            """)
+    List<AccountSummary> findPageAfter(
+            @Param("afterId") int afterId,
+            @Param("role") Role role,
+            @Param("status") Status status,
+            @Param("registeredFrom") LocalDate registeredFrom,
+            @Param("registeredTo") LocalDate registeredTo,
+            Limit limit
+    );
 }
@@ -0,0 +1,29 @@
+package com.unisew.account_service.repositories;
+
+import com.unisew.account_service.models.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BalanceCheckpointRepo extends JpaRepository<BalanceCheckpoint, Long> {
+
+    Optional<BalanceCheckpoint> findFirstByWalletIdAndAsOfLessThanEqualOrderByLastEntryIdDesc(Integer walletId, LocalDateTime asOf);
+
+    @Query("SELECT MAX(c.lastEntryId) FROM BalanceCheckpoint c")
+    Long findLastEntryId();
+
+    @Query("SELECT MAX(c.asOf) FROM BalanceCheckpoint c")
+    LocalDateTime findLastAsOf();
+
+    @Query("""
+            SELECT c FROM BalanceCheckpoint c
+            WHERE c.walletId IN :walletIds
+              AND c.lastEntryId = (SELECT MAX(l.lastEntryId) FROM BalanceCheckpoint l WHERE l.walletId = c.walletId)
+            """)
+    List<BalanceCheckpoint> findLatestByWalletIdIn(@Param("walletIds") Collection<Integer> walletIds);
+}
@@ -0,0 +1,35 @@
+package com.unisew.account_service.repositories;
+
+import com.unisew.account_service.models.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyKeyRepo extends JpaRepository<IdempotencyKey, String> {
+
+    // Returns 0 when the key is already recorded, waiting for an in-flight claim of the same key to finish first
+    @Modifying
+    @Query(value = """
+            INSERT INTO "idempotency_key" ("idempotency_key", "request_fingerprint", "created_at")
+            VALUES (:key, :fingerprint, :createdAt)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int claim(@Param("key") String key, @Param("fingerprint") String fingerprint, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.response = :response WHERE k.key = :key")
+    int recordResponse(@Param("key") String key, @Param("response") String response);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM "idempotency_key" WHERE "idempotency_key" IN (
+                SELECT "idempotency_key" FROM "idempotency_key" WHERE "created_at" < :cutoff LIMIT :limit
+            )
+            """, nativeQuery = true)
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
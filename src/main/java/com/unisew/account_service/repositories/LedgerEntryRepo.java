@@ -0,0 +1,49 @@
+package com.unisew.account_service.repositories;
+
+import com.unisew.account_service.models.LedgerEntry;
+import com.unisew.account_service.projections.LedgerTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface LedgerEntryRepo extends JpaRepository<LedgerEntry, Long> {
+
+    String BALANCE = """
+            SUM(CASE WHEN e.book = com.unisew.account_service.enums.LedgerBook.AVAILABLE
+                THEN (CASE WHEN e.direction = com.unisew.account_service.enums.EntryDirection.CREDIT THEN e.amount ELSE -e.amount END)
+                ELSE 0 END)
+            """;
+
+    String PENDING_BALANCE = """
+            SUM(CASE WHEN e.book = com.unisew.account_service.enums.LedgerBook.PENDING
+                THEN (CASE WHEN e.direction = com.unisew.account_service.enums.EntryDirection.CREDIT THEN e.amount ELSE -e.amount END)
+                ELSE 0 END)
+            """;
+
+    @Query("SELECT e.walletId AS walletId, " + BALANCE + " AS balance, " + PENDING_BALANCE + " AS pendingBalance "
+            + "FROM LedgerEntry e "
+            + "WHERE e.walletId IS NOT NULL AND e.id > :afterId AND e.id <= :upToId "
+            + "GROUP BY e.walletId")
+    List<LedgerTotals> sumByWalletBetween(@Param("afterId") long afterId, @Param("upToId") long upToId);
+
+    // The tail after a checkpoint, read through the (wallet_id, id) index
+    @Query("SELECT e.walletId AS walletId, " + BALANCE + " AS balance, " + PENDING_BALANCE + " AS pendingBalance "
+            + "FROM LedgerEntry e "
+            + "WHERE e.walletId = :walletId AND e.id > :afterId AND e.createdAt <= :asOf "
+            + "GROUP BY e.walletId")
+    Optional<LedgerTotals> sumForWalletAfter(
+            @Param("walletId") Integer walletId,
+            @Param("afterId") long afterId,
+            @Param("asOf") LocalDateTime asOf
+    );
+
+    @Query("SELECT MAX(e.id) FROM LedgerEntry e WHERE e.createdAt <= :horizon")
+    Long findMaxIdCreatedBefore(@Param("horizon") LocalDateTime horizon);
+
+    @Query("SELECT MAX(e.createdAt) FROM LedgerEntry e WHERE e.id > :afterId AND e.id <= :upToId")
+    LocalDateTime findMaxCreatedAtBetween(@Param("afterId") long afterId, @Param("upToId") long upToId);
+}
@@ -0,0 +1,86 @@
+package com.unisew.account_service.repositories;
+
+import com.unisew.account_service.enums.EntryDirection;
+import com.unisew.account_service.enums.LedgerBook;
+import com.unisew.account_service.enums.PaymentType;
+import com.unisew.account_service.models.BalanceCheckpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Ledger writes go in as one JDBC batch per database transaction, a debit and a credit row per movement
+@Repository
+@RequiredArgsConstructor
+public class LedgerJdbcRepo {
+
+    private static final String INSERT_ENTRY = "INSERT INTO \"ledger_entry\" (\"movement_id\", \"wallet_id\", book, "
+            + "direction, amount, \"payment_type\", \"created_at\") VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] INSERT_ENTRY_TYPES = {Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.VARCHAR,
+            Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(List<Movement> movements) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(movements.size() * 2);
+        for (Movement movement : movements) {
+            String movementId = UUID.randomUUID().toString();
+            rows.add(new Object[]{movementId, movement.fromWalletId(), movement.fromBook().name(),
+                    EntryDirection.DEBIT.name(), movement.amount(), movement.paymentType().name(), now});
+            rows.add(new Object[]{movementId, movement.toWalletId(), movement.toBook().name(),
+                    EntryDirection.CREDIT.name(), movement.amount(), movement.paymentType().name(), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, rows, INSERT_ENTRY_TYPES);
+    }
+
+    public void insertCheckpoints(List<BalanceCheckpoint> checkpoints) {
+        List<Object[]> rows = new ArrayList<>(checkpoints.size());
+        for (BalanceCheckpoint checkpoint : checkpoints) {
+            rows.add(new Object[]{checkpoint.getWalletId(), checkpoint.getLastEntryId(), Timestamp.valueOf(checkpoint.getAsOf()),
+                    checkpoint.getBalance(), checkpoint.getPendingBalance()});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO \"balance_checkpoint\" (\"wallet_id\", \"last_entry_id\", \"as_of\", balance, \"pending_balance\") "
+                        + "VALUES (?, ?, ?, ?, ?)",
+                rows,
+                new int[]{Types.INTEGER, Types.BIGINT, Types.TIMESTAMP, Types.BIGINT, Types.BIGINT}
+        );
+    }
+
+    // A debit on one book and the matching credit on another, a null wallet id is the EXTERNAL book
+    public record Movement(Integer fromWalletId, LedgerBook fromBook, Integer toWalletId, LedgerBook toBook,
+                           long amount, PaymentType paymentType) {
+
+        public static Movement deposit(Integer walletId, long amount) {
+            return new Movement(null, LedgerBook.EXTERNAL, walletId, LedgerBook.AVAILABLE, amount, PaymentType.DEPOSIT);
+        }
+
+        public static Movement withdraw(Integer walletId, long amount) {
+            return new Movement(walletId, LedgerBook.AVAILABLE, null, LedgerBook.EXTERNAL, amount, PaymentType.WITHDRAW);
+        }
+
+        public static Movement transfer(Integer fromWalletId, Integer toWalletId, long amount, PaymentType paymentType) {
+            return new Movement(fromWalletId, LedgerBook.AVAILABLE, toWalletId, LedgerBook.AVAILABLE, amount, paymentType);
+        }
+
+        public static Movement hold(Integer walletId, long amount) {
+            return new Movement(walletId, LedgerBook.AVAILABLE, walletId, LedgerBook.PENDING, amount, PaymentType.SCHOOL_ORDER);
+        }
+
+        public static Movement capture(Integer payerWalletId, Integer payeeWalletId, long amount) {
+            return new Movement(payerWalletId, LedgerBook.PENDING, payeeWalletId, LedgerBook.AVAILABLE, amount, PaymentType.SCHOOL_ORDER);
+        }
+
+        public static Movement release(Integer walletId, long amount) {
+            return new Movement(walletId, LedgerBook.PENDING, walletId, LedgerBook.AVAILABLE, amount, PaymentType.SCHOOL_ORDER);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.unisew.account_service.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+// Statement reads over a wallet's transaction rows, a row debits the wallet when the wallet is its sender
+@Repository
+@RequiredArgsConstructor
+public class StatementJdbcRepo {
+
+    private static final String SIGNED_AMOUNT = "CASE WHEN \"sender_id\" = \"wallet_id\" THEN -amount ELSE amount END";
+
+    private static final String SELECT_LINES = "SELECT id, \"creation_date\", \"payment_type\", status, note, "
+            + SIGNED_AMOUNT + " AS signed_amount, \"sender_name\", \"receiver_name\", \"item_id\" FROM \"transaction\" "
+            + "WHERE \"wallet_id\" = ? AND \"creation_date\" >= ? AND \"creation_date\" <= ? "
+            + "ORDER BY \"creation_date\", id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long sumBefore(Integer walletId, LocalDate from) {
+        Long sum = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(" + SIGNED_AMOUNT + "), 0) FROM \"transaction\" "
+                        + "WHERE \"wallet_id\" = ? AND \"creation_date\" < ?",
+                Long.class, walletId, Date.valueOf(from));
+        return sum != null ? sum : 0;
+    }
+
+    // Forward-only cursor handing rows to the handler as they arrive; on PostgreSQL the fetch size
+    // only takes effect inside a transaction, otherwise the driver buffers the whole result
+    public void streamLines(Integer walletId, LocalDate from, LocalDate to, int fetchSize, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_LINES, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setInt(1, walletId);
+            statement.setDate(2, Date.valueOf(from));
+            statement.setDate(3, Date.valueOf(to));
+            return statement;
+        }, handler);
+    }
+}
@@ -0,0 +1,57 @@
+package com.unisew.account_service.repositories;
+
+import com.unisew.account_service.enums.HoldStatus;
+import com.unisew.account_service.models.WalletHold;
+import com.unisew.account_service.projections.HoldSettlement;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface WalletHoldRepo extends JpaRepository<WalletHold, Integer> {
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE WalletHold h SET h.status = com.unisew.account_service.enums.HoldStatus.CAPTURING
+            WHERE h.id = :id AND h.status = com.unisew.account_service.enums.HoldStatus.HELD AND h.expiresAt > :now
+            """)
+    int requestCapture(@Param("id") Integer id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE WalletHold h SET h.status = com.unisew.account_service.enums.HoldStatus.RELEASING
+            WHERE h.id = :id AND h.status = com.unisew.account_service.enums.HoldStatus.HELD
+            """)
+    int requestRelease(@Param("id") Integer id);
+
+    @Query("""
+            SELECT h.id AS id, h.payer.id AS payerId, h.payee.id AS payeeId, h.amount AS amount,
+                   h.itemId AS itemId, h.note AS note
+            FROM WalletHold h
+            WHERE h.status = :status AND (CAST(:expiredBefore AS LocalDateTime) IS NULL OR h.expiresAt <= :expiredBefore)
+            ORDER BY h.id
+            """)
+    List<HoldSettlement> findSettlements(
+            @Param("status") HoldStatus status,
+            @Param("expiredBefore") LocalDateTime expiredBefore,
+            Limit limit
+    );
+
+    // Guarded by the current status, so a batch another instance already took updates fewer rows than asked
+    @Modifying
+    @Query("UPDATE WalletHold h SET h.status = :to, h.settledAt = :now WHERE h.id IN :ids AND h.status = :from")
+    int settle(
+            @Param("ids") Collection<Integer> ids,
+            @Param("from") HoldStatus from,
+            @Param("to") HoldStatus to,
+            @Param("now") LocalDateTime now
+    );
+}
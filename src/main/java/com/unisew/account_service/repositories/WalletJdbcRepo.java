@@ -0,0 +1,148 @@
+package com.unisew.account_service.repositories;
+
+import com.unisew.account_service.enums.PaymentType;
+import com.unisew.account_service.enums.Status;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Plain JDBC batches for wallet writes that are applied many at a time
+@Repository
+@RequiredArgsConstructor
+public class WalletJdbcRepo {
+
+    private static final String SYSTEM_NAME = "System/Bank";
+
+    private static final String INSERT_TRANSACTION = "INSERT INTO \"transaction\" (\"sender_name\", \"receiver_name\", "
+            + "amount, \"payment_type\", note, \"creation_date\", status, \"item_id\", \"sender_id\", \"receiver_id\", \"wallet_id\") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] INSERT_TRANSACTION_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.VARCHAR,
+            Types.VARCHAR, Types.DATE, Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.INTEGER};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // One statement per wallet in a single JDBC batch, returns the affected row count of each
+    public int[] creditAll(List<Integer> accountIds, List<Long> amounts) {
+        List<Object[]> args = new ArrayList<>(accountIds.size());
+        for (int i = 0; i < accountIds.size(); i++) {
+            args.add(new Object[]{amounts.get(i), accountIds.get(i)});
+        }
+        return jdbcTemplate.batchUpdate(
+                "UPDATE \"wallet\" SET balance = balance + ? WHERE \"account_id\" = ?",
+                args,
+                new int[]{Types.BIGINT, Types.INTEGER}
+        );
+    }
+
+    public void insertDeposits(List<Integer> accountIds, List<Long> amounts, Map<Integer, String> receiverNames, String note) {
+        Date today = Date.valueOf(LocalDate.now());
+        List<Object[]> rows = new ArrayList<>(accountIds.size());
+        for (int i = 0; i < accountIds.size(); i++) {
+            Integer accountId = accountIds.get(i);
+            rows.add(row(SYSTEM_NAME, receiverNames.get(accountId), amounts.get(i), PaymentType.DEPOSIT, note,
+                    today, null, null, accountId, accountId));
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, rows, INSERT_TRANSACTION_TYPES);
+    }
+
+    public void insertPayouts(Integer sourceAccountId, List<Integer> accountIds, List<Long> amounts,
+                              Map<Integer, String> names, PaymentType paymentType, String note) {
+        insertTransfers(
+                Collections.nCopies(accountIds.size(), sourceAccountId),
+                accountIds,
+                amounts,
+                Collections.nCopies(accountIds.size(), null),
+                names,
+                paymentType,
+                "Payout",
+                Collections.nCopies(accountIds.size(), note)
+        );
+    }
+
+    // Two rows per transfer: one on the sender wallet and one on the receiver wallet
+    public void insertTransfers(List<Integer> senderIds, List<Integer> receiverIds, List<Long> amounts, List<Integer> itemIds,
+                                Map<Integer, String> names, PaymentType paymentType, String label, List<String> notes) {
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION,
+                transferRows(senderIds, receiverIds, amounts, itemIds, names, paymentType, label, notes),
+                INSERT_TRANSACTION_TYPES);
+    }
+
+    // Same rows as insertTransfers, also returning the generated ids in row order for callers that hand the rows back
+    public List<Integer> insertTransfersReturningIds(List<Integer> senderIds, List<Integer> receiverIds, List<Long> amounts,
+                                                     List<Integer> itemIds, Map<Integer, String> names,
+                                                     PaymentType paymentType, String label, List<String> notes) {
+        List<Object[]> rows = transferRows(senderIds, receiverIds, amounts, itemIds, names, paymentType, label, notes);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_TRANSACTION, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Object[] row = rows.get(i);
+                        for (int column = 0; column < row.length; column++) {
+                            StatementCreatorUtils.setParameterValue(ps, column + 1, INSERT_TRANSACTION_TYPES[column], row[column]);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keyHolder
+        );
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).intValue())
+                .toList();
+    }
+
+    private static List<Object[]> transferRows(List<Integer> senderIds, List<Integer> receiverIds, List<Long> amounts,
+                                               List<Integer> itemIds, Map<Integer, String> names,
+                                               PaymentType paymentType, String label, List<String> notes) {
+        Date today = Date.valueOf(LocalDate.now());
+        List<Object[]> rows = new ArrayList<>(senderIds.size() * 2);
+        for (int i = 0; i < senderIds.size(); i++) {
+            Integer senderId = senderIds.get(i);
+            Integer receiverId = receiverIds.get(i);
+            rows.add(row(names.get(senderId), names.get(receiverId), amounts.get(i), paymentType,
+                    label + " out: " + notes.get(i), today, itemIds.get(i), senderId, receiverId, senderId));
+            rows.add(row(names.get(senderId), names.get(receiverId), amounts.get(i), paymentType,
+                    label + " in: " + notes.get(i), today, itemIds.get(i), senderId, receiverId, receiverId));
+        }
+        return rows;
+    }
+
+    // Applies balance and pending balance changes for many wallets, callers pass them in account id order
+    public int[] applyDeltas(List<Integer> accountIds, List<Long> balanceDeltas, List<Long> pendingDeltas) {
+        List<Object[]> args = new ArrayList<>(accountIds.size());
+        for (int i = 0; i < accountIds.size(); i++) {
+            args.add(new Object[]{balanceDeltas.get(i), pendingDeltas.get(i), accountIds.get(i)});
+        }
+        return jdbcTemplate.batchUpdate(
+                "UPDATE \"wallet\" SET balance = balance + ?, \"pending_balance\" = \"pending_balance\" + ? WHERE \"account_id\" = ?",
+                args,
+                new int[]{Types.BIGINT, Types.BIGINT, Types.INTEGER}
+        );
+    }
+
+    private static Object[] row(String senderName, String receiverName, long amount, PaymentType paymentType, String note,
+                                Date creationDate, Integer itemId, Integer senderId, Integer receiverId, Integer walletId) {
+        return new Object[]{senderName, receiverName, amount, paymentType.name(), note, creationDate,
+                Status.TXN_COMPLETED.name(), itemId, senderId, receiverId, walletId};
+    }
+}
@@ -1,7 +1,58 @@
 package com.unisew.account_service.repositories;
 
 import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.projections.WalletBalance;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface WalletRepo extends JpaRepository<Wallet, Integer> {
+
+    Optional<WalletBalance> findBalanceById(Integer id);
+
+    List<WalletBalance> findBalancesByIdIn(Collection<Integer> ids);
+
+    List<WalletBalance> findBalancesBy();
+
+    @Query("""
+            SELECT w.id AS id, w.balance AS balance, w.pendingBalance AS pendingBalance
+            FROM Wallet w
+            WHERE w.id > :afterId
+              AND (CAST(:minBalance AS Long) IS NULL OR w.balance >= :minBalance)
+              AND (CAST(:maxBalance AS Long) IS NULL OR w.balance <= :maxBalance)
+            ORDER BY w.id
+            """)
+    List<WalletBalance> findPageAfter(
+            @Param("afterId") int afterId,
+            @Param("minBalance") Long minBalance,
+            @Param("maxBalance") Long maxBalance,
+            Limit limit
+    );
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount WHERE w.id = :accountId")
+    int credit(@Param("accountId") Integer accountId, @Param("amount") long amount);
+
+    // Matches no row when the balance would go negative, so the check and the write are one statement
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount WHERE w.id = :accountId AND w.balance >= :amount")
+    int debit(@Param("accountId") Integer accountId, @Param("amount") long amount);
+
+    // Moves funds into the pending balance, again matching no row when the balance is short
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Wallet w SET w.balance = w.balance - :amount, w.pendingBalance = w.pendingBalance + :amount
+            WHERE w.id = :accountId AND w.balance >= :amount
+            """)
+    int hold(@Param("accountId") Integer accountId, @Param("amount") long amount);
 }
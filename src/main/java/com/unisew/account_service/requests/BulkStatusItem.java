@@ -0,0 +1,21 @@
+package com.unisew.account_service.requests;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkStatusItem {
+    Integer accountId;
+    List<Integer> packageIds;
+    Integer garmentId;
+}
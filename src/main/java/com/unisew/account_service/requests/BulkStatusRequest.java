@@ -0,0 +1,21 @@
+package com.unisew.account_service.requests;
+
+import com.unisew.account_service.enums.Status;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkStatusRequest {
+    Status status;
+    List<BulkStatusItem> accounts;
+}
@@ -0,0 +1,18 @@
+package com.unisew.account_service.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HoldRequest {
+    private Integer payerAccountId;
+    private Integer payeeAccountId;
+    private long amount;
+    private Integer itemId;
+    private String note;
+}
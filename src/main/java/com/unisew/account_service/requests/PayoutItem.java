@@ -0,0 +1,15 @@
+package com.unisew.account_service.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayoutItem {
+    private Integer accountId;
+    private long amount;
+}
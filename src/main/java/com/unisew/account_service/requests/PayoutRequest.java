@@ -0,0 +1,20 @@
+package com.unisew.account_service.requests;
+
+import com.unisew.account_service.enums.PaymentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayoutRequest {
+    private Integer sourceAccountId;
+    private PaymentType paymentType;
+    private String note;
+    private List<PayoutItem> items;
+}
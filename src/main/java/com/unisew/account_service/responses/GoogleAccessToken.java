@@ -0,0 +1,19 @@
+package com.unisew.account_service.responses;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class GoogleAccessToken {
+    String accessToken;
+    String refreshToken;
+    long expiresIn;
+}
@@ -0,0 +1,22 @@
+package com.unisew.account_service.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HoldResponseDTO {
+    private Integer id;
+    private Integer payerAccountId;
+    private Integer payeeAccountId;
+    private long amount;
+    private Integer itemId;
+    private String status;
+    private LocalDateTime expiresAt;
+}
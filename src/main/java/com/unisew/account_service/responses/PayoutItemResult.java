@@ -0,0 +1,16 @@
+package com.unisew.account_service.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayoutItemResult {
+    private Integer accountId;
+    private long amount;
+    private String result;
+}
@@ -0,0 +1,21 @@
+package com.unisew.account_service.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayoutResponseDTO {
+    private boolean completed;
+    private String message;
+    private Integer sourceAccountId;
+    private long total;
+    private long sourceBalance;
+    private List<PayoutItemResult> items;
+}
@@ -0,0 +1,17 @@
+package com.unisew.account_service.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletPageDTO {
+    private List<WalletResponseDTO> wallets;
+    private Integer nextCursor;
+}
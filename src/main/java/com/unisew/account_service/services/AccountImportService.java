@@ -0,0 +1,12 @@
+package com.unisew.account_service.services;
+
+import com.unisew.account_service.requests.CreateAccountRequest;
+import com.unisew.account_service.responses.ResponseObject;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+public interface AccountImportService {
+    ResponseEntity<ResponseObject> importAccounts(List<CreateAccountRequest> requests);
+    ResponseEntity<ResponseObject> importAccountsCsv(String csv);
+}
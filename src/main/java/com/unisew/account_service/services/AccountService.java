@@ -1,13 +1,17 @@
 package com.unisew.account_service.services;
 
+import com.unisew.account_service.enums.Role;
 import com.unisew.account_service.enums.Status;
 import com.unisew.account_service.models.Account;
 import com.unisew.account_service.requests.AccountRequestDTO;
+import com.unisew.account_service.requests.BulkStatusRequest;
 import com.unisew.account_service.requests.CreateAccountRequest;
 import com.unisew.account_service.responses.AccountResponseDTO;
 import com.unisew.account_service.responses.ResponseObject;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,7 +22,10 @@ public interface AccountService {
     void deleteAccount(Integer id);
     Optional<AccountResponseDTO> getAccountById(Integer id);
     ResponseEntity<ResponseObject> getAllAccounts();
+    ResponseEntity<ResponseObject> getAccountPage(Integer cursor, int size, Role role, Status status, LocalDate registeredFrom, LocalDate registeredTo);
     Optional<AccountResponseDTO> getAccountByEmail(String email);
     Account updateAccountStatus(Integer id, Status status);
+    ResponseEntity<ResponseObject> updateAccountStatuses(BulkStatusRequest request);
     Map<String, Object> getAccountById(int id);
+    Map<Integer, Map<String, Object>> getAccountsByIds(Collection<Integer> ids);
 }
@@ -0,0 +1,12 @@
+package com.unisew.account_service.services;
+
+import com.unisew.account_service.enums.BanCheck;
+import com.unisew.account_service.requests.BulkStatusItem;
+
+import java.util.List;
+import java.util.Map;
+
+public interface BanSafetyService {
+    BanCheck check(List<Integer> packageIds, Integer garmentId);
+    Map<Integer, BanCheck> checkAll(List<BulkStatusItem> items);
+}
@@ -0,0 +1,11 @@
+package com.unisew.account_service.services;
+
+import com.unisew.account_service.enums.HoldStatus;
+import com.unisew.account_service.models.WalletHold;
+
+public interface EscrowService {
+    WalletHold hold(Integer payerAccountId, Integer payeeAccountId, long amount, Integer itemId, String note);
+    HoldStatus capture(Integer holdId);
+    HoldStatus release(Integer holdId);
+    int settle();
+}
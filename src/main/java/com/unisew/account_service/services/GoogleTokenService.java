@@ -0,0 +1,6 @@
+package com.unisew.account_service.services;
+
+public interface GoogleTokenService {
+    String getAccessToken(int accountId, String refreshToken);
+    void invalidate(int accountId);
+}
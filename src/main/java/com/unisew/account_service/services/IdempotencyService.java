@@ -0,0 +1,8 @@
+package com.unisew.account_service.services;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    Object execute(String key, String operation, Object request, Supplier<Object> action);
+    int purgeExpired();
+}
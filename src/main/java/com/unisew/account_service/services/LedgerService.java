@@ -0,0 +1,10 @@
+package com.unisew.account_service.services;
+
+import com.unisew.account_service.models.Wallet;
+
+import java.time.LocalDateTime;
+
+public interface LedgerService {
+    Wallet getBalanceAsOf(Integer accountId, LocalDateTime asOf);
+    int checkpoint();
+}
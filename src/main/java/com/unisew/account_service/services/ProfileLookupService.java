@@ -0,0 +1,9 @@
+package com.unisew.account_service.services;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ProfileLookupService {
+    Map<String, Object> getProfile(int accountId);
+    Map<Integer, Map<String, Object>> getProfiles(Collection<Integer> accountIds);
+}
@@ -1,5 +1,6 @@
 package com.unisew.account_service.services;
 
+import com.unisew.account_service.components.ProfileServiceFallbackFactory;
 import com.unisew.account_service.requests.CreateProfileRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -7,9 +8,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
 import java.util.Map;
 
-@FeignClient(name = "profile-service", url = "http://localhost:8085/api/v2/profile")
+@FeignClient(name = "profile-service", url = "http://localhost:8085/api/v2/profile", fallbackFactory = ProfileServiceFallbackFactory.class)
 public interface ProfileService {
 
     @PostMapping("")
@@ -17,4 +19,10 @@ public interface ProfileService {
 
     @GetMapping("")
     Map<String, Object> getProfile(@RequestParam(name = "accountId") int accountId);
+
+    @PostMapping("/batch-create")
+    List<Map<String, Object>> createProfiles(@RequestBody List<CreateProfileRequest> requests);
+
+    @PostMapping("/batch")
+    Map<Integer, Map<String, Object>> getProfiles(@RequestBody List<Integer> accountIds);
 }
@@ -0,0 +1,11 @@
+package com.unisew.account_service.services;
+
+import com.unisew.account_service.enums.StatementFormat;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface StatementService {
+    void checkStatement(Integer walletId, LocalDate from, LocalDate to);
+    void writeStatement(Integer walletId, LocalDate from, LocalDate to, StatementFormat format, OutputStream out);
+}
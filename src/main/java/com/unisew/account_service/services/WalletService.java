@@ -2,6 +2,9 @@ package com.unisew.account_service.services;
 
 import com.unisew.account_service.models.Transaction;
 import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.requests.PayoutRequest;
+import com.unisew.account_service.responses.PayoutResponseDTO;
+import com.unisew.account_service.responses.WalletPageDTO;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +13,9 @@ public interface WalletService {
     Wallet deposit(Integer accountId, long amount);
     Wallet withdraw(Integer accountId, long amount);
     List<Transaction> transfer(Integer senderAccountId, Integer receiverAccountId, long amount, String note);
+    PayoutResponseDTO payout(PayoutRequest request);
     Optional<Wallet> getWalletByAccountId(Integer accountId);
+    Optional<Wallet> getBalance(Integer accountId);
     List<Wallet> getAllWallets();
+    WalletPageDTO getWalletPage(Integer cursor, int size, Long minBalance, Long maxBalance);
 }
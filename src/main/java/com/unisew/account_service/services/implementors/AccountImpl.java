@@ -1,49 +1,72 @@
 package com.unisew.account_service.services.implementors;
 
+import com.unisew.account_service.enums.BanCheck;
 import com.unisew.account_service.enums.Role;
 import com.unisew.account_service.enums.Status;
 import com.unisew.account_service.models.Account;
 import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.projections.AccountSummary;
 import com.unisew.account_service.repositories.AccountRepo;
-import com.unisew.account_service.repositories.WalletRepo;
 import com.unisew.account_service.requests.AccountRequestDTO;
+import com.unisew.account_service.requests.BulkStatusItem;
+import com.unisew.account_service.requests.BulkStatusRequest;
 import com.unisew.account_service.requests.CreateAccountRequest;
 import com.unisew.account_service.requests.CreateProfileRequest;
 import com.unisew.account_service.responses.AccountResponseDTO;
 import com.unisew.account_service.responses.ResponseObject;
 import com.unisew.account_service.services.AccountService;
-import com.unisew.account_service.services.DesignService;
-import com.unisew.account_service.services.OrderService;
+import com.unisew.account_service.services.BanSafetyService;
+import com.unisew.account_service.services.ProfileLookupService;
 import com.unisew.account_service.services.ProfileService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.unisew.account_service.components.EmailIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RequiredArgsConstructor
 @Service
 @Slf4j
 public class AccountImpl implements AccountService {
     private final AccountRepo accountRepo;
-    private final WalletRepo walletRepo;
-    private final DesignService designService;
     private final ProfileService profileService;
-    private final OrderService orderService;
+    private final ProfileLookupService profileLookupService;
+    private final Cache<Integer, Map<String, Object>> internalAccountCache;
+    private final BanSafetyService banSafetyService;
+    private final EmailIndex emailIndex;
+
+    @Value("${account.page.max_size:100}")
+    private int maxPageSize;
+
+    @Value("${account.batch_lookup.max_size:500}")
+    private int maxBatchLookupSize;
 
     @Override
     @Transactional
     public ResponseEntity<ResponseObject> createAccount(CreateAccountRequest request) {
-
-        if (accountRepo.existsByEmail(request.getEmail())) {
+        String email = EmailIndex.normalize(request.getEmail());
+        // The unique email index still rejects a duplicate the in-memory index has not seen yet
+        if (emailIndex.mightExist(email) && accountRepo.existsByEmailKey(email)) {
             return ResponseEntity.status(HttpStatus.OK).body(
                     ResponseObject.builder()
                             .message("This email is already registered")
@@ -51,7 +74,7 @@ public class AccountImpl implements AccountService {
             );
         }
         Account account = new Account();
-        account.setEmail(request.getEmail());
+        account.setEmail(email);
         account.setRole(request.getRole());
         account.setRegisterDate(LocalDate.now());
         account.setStatus(Status.ACCOUNT_ACTIVE);
@@ -60,14 +83,16 @@ public class AccountImpl implements AccountService {
                 .balance(0)
                 .account(account)
                 .build();
-        walletRepo.save(wallet);
         account.setWallet(wallet);
-        accountRepo.save(account);
+        // Sequence ids defer the INSERT to commit; flush first so a duplicate email
+        // fails here, before the email index and the profile service are touched
+        accountRepo.saveAndFlush(account);
+        emailIndex.add(email);
         profileService.createProfile(
                 CreateProfileRequest.builder()
                         .accountId(account.getId())
                         .avatar("https://37assets.37signals.com/svn/765-default-avatar.png")
-                        .name(request.getEmail().replace("@gmail.com", ""))
+                        .name(email.replace("@gmail.com", ""))
                         .role(request.getRole().toString().toLowerCase())
                         .build()
         );
@@ -80,39 +105,63 @@ public class AccountImpl implements AccountService {
     }
 
     @Override
-    @Transactional
     public ResponseEntity<ResponseObject> updateAccount(Integer id, AccountRequestDTO request) {
-        Account account = accountRepo.findById(id).orElse(null);
-        if (account == null) {
+        if (!accountRepo.existsById(id)) {
             return ResponseEntity.status(HttpStatus.OK).body(
                     ResponseObject.builder()
                             .message("Account not found")
                             .build()
             );
         }
-        if (request.getPackageIds() != null) {
-            boolean isSafe = designService.isSafeToBan(request.getPackageIds());
-            if (!isSafe) {
+        Status status = Status.valueOf("ACCOUNT_" + request.getStatus().toUpperCase());
+
+        // Remote checks run before any transaction is opened, so a slow design or
+        // order service never holds a pooled connection
+        Integer garmentId = request.getPackageIds() == null || request.getGarmentId() > 0
+                ? request.getGarmentId()
+                : null;
+        BanCheck check = banSafetyService.check(request.getPackageIds(), garmentId);
+        switch (check) {
+            case UNSAFE_DESIGN -> {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
                         ResponseObject.builder()
                                 .message("This account has design which is not completed yet, cannot ban!")
                                 .build()
                 );
             }
-        } else {
-            boolean isSafe2 = orderService.isSafeToBan(request.getGarmentId());
-            if (!isSafe2) {
+            case UNSAFE_ORDER -> {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
                         ResponseObject.builder()
                                 .message("This account has order which is not completed yet, cannot ban!")
                                 .build()
                 );
             }
+            case UNAVAILABLE -> {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                        ResponseObject.builder()
+                                .message("Cannot verify design and order status right now, account was not updated")
+                                .build()
+                );
+            }
+            case UNKNOWN -> {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                        ResponseObject.builder()
+                                .message("Package IDs or a garment ID are required to check the account before banning")
+                                .build()
+                );
+            }
+            default -> {
+            }
         }
 
-
-        account.setStatus(Status.valueOf("ACCOUNT_" + request.getStatus().toUpperCase()));
-        accountRepo.save(account);
+        if (accountRepo.updateStatus(id, status) == 0) {
+            return ResponseEntity.status(HttpStatus.OK).body(
+                    ResponseObject.builder()
+                            .message("Account not found")
+                            .build()
+            );
+        }
+        evictInternalAccount(id);
         return ResponseEntity.status(HttpStatus.OK).body(
                 ResponseObject.builder()
                         .message("Updated account successfully")
@@ -128,6 +177,7 @@ public class AccountImpl implements AccountService {
                     .orElseThrow(() -> new RuntimeException("Account not found with ID: " + id));
             account.setStatus(Status.ACCOUNT_INACTIVE);
             accountRepo.save(account);
+            evictInternalAccount(id);
         } catch (RuntimeException e) {
             log.error("Error deleting account {}: {}", id, e.getMessage());
             throw e;
@@ -149,8 +199,12 @@ public class AccountImpl implements AccountService {
 
     @Override
     public ResponseEntity<ResponseObject> getAllAccounts() {
-        List<AccountResponseDTO> accounts = accountRepo.findAll().stream().map(this::mapToResponseDTO)
-                .filter(account -> account.getRole() != Role.ADMIN)
+        List<Account> found = accountRepo.findAllByRoleNot(Role.ADMIN);
+        Map<Integer, Map<String, Object>> profiles = profileLookupService.getProfiles(
+                found.stream().map(Account::getId).toList()
+        );
+        List<AccountResponseDTO> accounts = found.stream()
+                .map(account -> mapToResponseDTO(account, profiles.get(account.getId())))
                 .toList();
         if (accounts.isEmpty()) {
             return ResponseEntity.status(HttpStatus.OK).body(
@@ -168,10 +222,38 @@ public class AccountImpl implements AccountService {
         );
     }
 
+    @Override
+    public ResponseEntity<ResponseObject> getAccountPage(Integer cursor, int size, Role role, Status status, LocalDate registeredFrom, LocalDate registeredTo) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<AccountSummary> rows = accountRepo.findPageAfter(
+                cursor != null ? cursor : 0, role, status, registeredFrom, registeredTo, Limit.of(pageSize + 1)
+        );
+        boolean hasNext = rows.size() > pageSize;
+        List<AccountSummary> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        Map<Integer, Map<String, Object>> profiles = profileLookupService.getProfiles(
+                page.stream().map(AccountSummary::getId).toList()
+        );
+        List<AccountResponseDTO> accounts = page.stream()
+                .map(summary -> mapToResponseDTO(summary, profiles.get(summary.getId())))
+                .toList();
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("accounts", accounts);
+        data.put("nextCursor", hasNext ? page.get(page.size() - 1).getId() : null);
+        return ResponseEntity.status(HttpStatus.OK).body(
+                ResponseObject.builder()
+                        .message(accounts.isEmpty() ? "No accounts found" : "Successfully")
+                        .data(data)
+                        .build()
+        );
+    }
+
     @Override
     public Optional<AccountResponseDTO> getAccountByEmail(String email) {
         try {
-            return accountRepo.findByEmail(email).map(this::mapToResponseDTO);
+            return accountRepo.findByEmailKey(EmailIndex.normalize(email)).map(this::mapToResponseDTO);
         } catch (Exception e) {
             log.error("Error retrieving account with email {}: {}", email, e.getMessage());
             return Optional.empty();
@@ -185,7 +267,9 @@ public class AccountImpl implements AccountService {
             Account account = accountRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Account not found with ID: " + id));
             account.setStatus(status);
-            return accountRepo.save(account);
+            Account saved = accountRepo.save(account);
+            evictInternalAccount(id);
+            return saved;
         } catch (RuntimeException e) {
             log.error("Error updating account status {}: {}", id, e.getMessage());
             throw e;
@@ -195,30 +279,150 @@ public class AccountImpl implements AccountService {
         }
     }
 
+    @Override
+    public ResponseEntity<ResponseObject> updateAccountStatuses(BulkStatusRequest request) {
+        if (request.getStatus() == null || request.getAccounts() == null || request.getAccounts().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                    ResponseObject.builder()
+                            .message("Status and accounts are required")
+                            .build()
+            );
+        }
+        List<Integer> ids = request.getAccounts().stream().map(BulkStatusItem::getAccountId).toList();
+        if (ids.contains(null) || new HashSet<>(ids).size() != ids.size()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                    ResponseObject.builder()
+                            .message("Every account must have an ID and appear only once")
+                            .build()
+            );
+        }
+        Set<Integer> existing = new HashSet<>(accountRepo.findExistingIds(ids));
+
+        // Reactivation cannot strand an order or design, only bans need the remote checks
+        List<BulkStatusItem> toCheck = request.getAccounts().stream()
+                .filter(item -> existing.contains(item.getAccountId()))
+                .filter(item -> request.getStatus() != Status.ACCOUNT_ACTIVE)
+                .toList();
+        Map<Integer, BanCheck> checks = banSafetyService.checkAll(toCheck);
+
+        Map<Integer, String> results = new LinkedHashMap<>();
+        List<Integer> allowed = new ArrayList<>();
+        for (Integer id : ids) {
+            if (!existing.contains(id)) {
+                results.put(id, "not_found");
+                continue;
+            }
+            BanCheck check = request.getStatus() == Status.ACCOUNT_ACTIVE
+                    ? BanCheck.SAFE
+                    : checks.getOrDefault(id, BanCheck.UNKNOWN);
+            if (check == BanCheck.SAFE) {
+                allowed.add(id);
+                results.put(id, "updated");
+            } else {
+                results.put(id, check.getValue());
+            }
+        }
+
+        if (!allowed.isEmpty()) {
+            accountRepo.updateStatusIn(allowed, request.getStatus());
+            allowed.forEach(this::evictInternalAccount);
+        }
+
+        List<Map<String, Object>> data = results.entrySet().stream()
+                .map(entry -> {
+                    Map<String, Object> result = new HashMap<>();
+                    result.put("accountId", entry.getKey());
+                    result.put("result", entry.getValue());
+                    return result;
+                })
+                .toList();
+        return ResponseEntity.status(HttpStatus.OK).body(
+                ResponseObject.builder()
+                        .message("Updated " + allowed.size() + " of " + ids.size() + " accounts")
+                        .data(data)
+                        .build()
+        );
+    }
+
     private AccountResponseDTO mapToResponseDTO(Account account) {
-        Map<String, Object> data = profileService.getProfile(account.getId());
+        return mapToResponseDTO(account, profileLookupService.getProfile(account.getId()));
+    }
+
+    private AccountResponseDTO mapToResponseDTO(Account account, Map<String, Object> data) {
         return AccountResponseDTO.builder()
                 .id(account.getId())
                 .email(account.getEmail())
                 .role(account.getRole())
                 .registerDate(account.getRegisterDate())
                 .status(account.getStatus().getValue())
-                .partner(data.get("partner"))
+                .partner(data != null ? data.get("partner") : null)
+                .build();
+    }
+
+    private AccountResponseDTO mapToResponseDTO(AccountSummary summary, Map<String, Object> data) {
+        return AccountResponseDTO.builder()
+                .id(summary.getId())
+                .email(summary.getEmail())
+                .role(summary.getRole())
+                .registerDate(summary.getRegisterDate())
+                .status(summary.getStatus().getValue())
+                .partner(data != null ? data.get("partner") : null)
                 .build();
     }
 
     @Override
     public Map<String, Object> getAccountById(int id) {
-        Account account = accountRepo.findById(id).orElse(null);
-        if (account == null) {
-            return null;
+        return internalAccountCache.get(id, this::loadAccountData);
+    }
+
+    @Override
+    public Map<Integer, Map<String, Object>> getAccountsByIds(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Map.of();
         }
+        // Caffeine rejects null keys, so drop them before the lookup
+        Set<Integer> distinctIds = new HashSet<>();
+        for (Integer id : ids) {
+            if (id != null) {
+                distinctIds.add(id);
+            }
+        }
+        if (distinctIds.size() > maxBatchLookupSize) {
+            throw new IllegalArgumentException("At most " + maxBatchLookupSize + " account IDs can be looked up at once");
+        }
+        return internalAccountCache.getAll(distinctIds, missing -> {
+            Map<Integer, Map<String, Object>> loaded = new HashMap<>();
+            accountRepo.findSummariesByIdIn(List.copyOf(missing))
+                    .forEach(summary -> loaded.put(summary.getId(), toAccountData(summary)));
+            return loaded;
+        });
+    }
+
+    private Map<String, Object> loadAccountData(Integer id) {
+        return accountRepo.findSummaryById(id).map(this::toAccountData).orElse(null);
+    }
+
+    private Map<String, Object> toAccountData(AccountSummary account) {
         Map<String, Object> accData = new HashMap<>();
         accData.put("id", account.getId());
         accData.put("email", account.getEmail());
         accData.put("role", account.getRole().getValue().toLowerCase());
         accData.put("registerDate", account.getRegisterDate());
         accData.put("status", account.getStatus().getValue().toLowerCase());
-        return accData;
+        return Collections.unmodifiableMap(accData);
+    }
+
+    // Evict now and again once the transaction ends, so a reader that loaded
+    // the old row before commit cannot leave a stale entry behind.
+    private void evictInternalAccount(Integer id) {
+        internalAccountCache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    internalAccountCache.invalidate(id);
+                }
+            });
+        }
     }
 }
@@ -0,0 +1,184 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.components.EmailIndex;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
+import com.unisew.account_service.models.Account;
+import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.repositories.AccountRepo;
+import com.unisew.account_service.requests.CreateAccountRequest;
+import com.unisew.account_service.requests.CreateProfileRequest;
+import com.unisew.account_service.responses.ResponseObject;
+import com.unisew.account_service.services.AccountImportService;
+import com.unisew.account_service.services.ProfileService;
+import com.unisew.account_service.utils.ResponseBuilder;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountImportImpl implements AccountImportService {
+
+    private static final String DEFAULT_AVATAR = "https://37assets.37signals.com/svn/765-default-avatar.png";
+
+    private final AccountRepo accountRepo;
+    private final ProfileService profileService;
+    private final EmailIndex emailIndex;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor remoteCallExecutor;
+
+    @Value("${account.import.max_size:10000}")
+    private int maxSize;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int jdbcBatchSize;
+
+    @Value("${profile.batch_size:100}")
+    private int profileBatchSize;
+
+    @Override
+    public ResponseEntity<ResponseObject> importAccounts(List<CreateAccountRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return ResponseBuilder.build(HttpStatus.BAD_REQUEST, "No accounts to import", null);
+        }
+        if (requests.size() > maxSize) {
+            return ResponseBuilder.build(HttpStatus.BAD_REQUEST, "Cannot import more than " + maxSize + " accounts at once", null);
+        }
+
+        Map<String, Role> candidates = new LinkedHashMap<>();
+        List<String> invalid = new ArrayList<>();
+        List<String> duplicated = new ArrayList<>();
+        for (CreateAccountRequest request : requests) {
+            String email = EmailIndex.normalize(request.getEmail());
+            if (email == null || email.isEmpty() || request.getRole() == null || request.getRole() == Role.ADMIN) {
+                invalid.add(request.getEmail());
+            } else if (candidates.putIfAbsent(email, request.getRole()) != null) {
+                duplicated.add(email);
+            }
+        }
+
+        Set<String> existing = candidates.isEmpty()
+                ? Set.of()
+                : new HashSet<>(accountRepo.findExistingEmailKeys(candidates.keySet()));
+        candidates.keySet().removeAll(existing);
+
+        List<Account> created = persistNew(candidates, duplicated);
+        created.forEach(account -> emailIndex.add(account.getEmail()));
+        List<Integer> profileFailures = createProfiles(created);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("created", created.size());
+        data.put("alreadyRegistered", existing);
+        data.put("duplicated", duplicated);
+        data.put("invalid", invalid);
+        data.put("profileFailures", profileFailures);
+        return ResponseBuilder.build(HttpStatus.CREATED, "Imported " + created.size() + " accounts", data);
+    }
+
+    @Override
+    public ResponseEntity<ResponseObject> importAccountsCsv(String csv) {
+        List<CreateAccountRequest> requests = new ArrayList<>();
+        for (String line : csv.split("\\R")) {
+            String[] columns = line.split(",");
+            if (line.isBlank() || columns[0].trim().equalsIgnoreCase("email")) {
+                continue;
+            }
+            Role role = null;
+            if (columns.length > 1) {
+                try {
+                    role = Role.valueOf(columns[1].trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Unknown role in import line: {}", line);
+                }
+            }
+            requests.add(CreateAccountRequest.builder().email(columns[0].trim()).role(role).build());
+        }
+        return importAccounts(requests);
+    }
+
+    // A concurrent import can register an email between the lookup and the insert, and the unique
+    // index then fails the whole batch: those emails are reported as duplicates and the rest retried
+    private List<Account> persistNew(Map<String, Role> candidates, List<String> duplicated) {
+        while (true) {
+            try {
+                return transactionTemplate.execute(status -> persist(candidates));
+            } catch (DataIntegrityViolationException | ConstraintViolationException e) {
+                List<String> registered = candidates.isEmpty() ? List.of() : accountRepo.findExistingEmailKeys(candidates.keySet());
+                if (registered.isEmpty()) {
+                    throw e;
+                }
+                log.warn("{} imported emails were registered concurrently, retrying without them", registered.size());
+                candidates.keySet().removeAll(registered);
+                duplicated.addAll(registered);
+            }
+        }
+    }
+
+    // Sequence ids with pooled allocation let Hibernate batch the account and wallet
+    // inserts; flushing and clearing per batch keeps the persistence context small
+    private List<Account> persist(Map<String, Role> candidates) {
+        List<Account> created = new ArrayList<>(candidates.size());
+        LocalDate today = LocalDate.now();
+        candidates.forEach((email, role) -> {
+            Account account = Account.builder()
+                    .email(email)
+                    .role(role)
+                    .registerDate(today)
+                    .status(Status.ACCOUNT_ACTIVE)
+                    .build();
+            account.setWallet(Wallet.builder().balance(0).account(account).build());
+            entityManager.persist(account);
+            created.add(account);
+            if (created.size() % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        });
+        return created;
+    }
+
+    private List<Integer> createProfiles(List<Account> accounts) {
+        List<CompletableFuture<List<Integer>>> futures = new ArrayList<>();
+        for (int from = 0; from < accounts.size(); from += profileBatchSize) {
+            List<CreateProfileRequest> chunk = accounts.subList(from, Math.min(from + profileBatchSize, accounts.size()))
+                    .stream()
+                    .map(account -> CreateProfileRequest.builder()
+                            .accountId(account.getId())
+                            .avatar(DEFAULT_AVATAR)
+                            .name(account.getEmail().replace("@gmail.com", ""))
+                            .role(account.getRole().toString().toLowerCase())
+                            .build())
+                    .toList();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                profileService.createProfiles(chunk);
+                return List.<Integer>of();
+            }, remoteCallExecutor).exceptionally(e -> {
+                log.error("Error creating {} imported profiles: {}", chunk.size(), e.getMessage());
+                return chunk.stream().map(CreateProfileRequest::getAccountId).toList();
+            }));
+        }
+        return futures.stream().flatMap(future -> future.join().stream()).toList();
+    }
+}
@@ -1,31 +1,34 @@
 package com.unisew.account_service.services.implementors;
 
+import com.unisew.account_service.components.EmailIndex;
 import com.unisew.account_service.enums.Role;
 import com.unisew.account_service.enums.Status;
 import com.unisew.account_service.models.Account;
+import com.unisew.account_service.projections.AccountAuthView;
 import com.unisew.account_service.repositories.AccountRepo;
 import com.unisew.account_service.requests.CreateProfileRequest;
 import com.unisew.account_service.requests.LoginRequest;
 import com.unisew.account_service.responses.ResponseObject;
 import com.unisew.account_service.services.AuthService;
+import com.unisew.account_service.services.GoogleTokenService;
 import com.unisew.account_service.services.JWTService;
+import com.unisew.account_service.services.ProfileLookupService;
 import com.unisew.account_service.services.ProfileService;
 import com.unisew.account_service.utils.ResponseBuilder;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.http.HttpEntity;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @Service
 @RequiredArgsConstructor
@@ -37,12 +40,17 @@ public class AuthImpl implements AuthService {
 
     private final JWTService jwtService;
 
+    private final EmailIndex emailIndex;
+
+    private final ProfileLookupService profileLookupService;
+
+    private final Executor remoteCallExecutor;
+
+    private final GoogleTokenService googleTokenService;
+
     @Value("${google.client_id}")
     private String clientId;
 
-    @Value("${google.client_secret}")
-    private String clientSecret;
-
     @Value("${google.redirect_uri}")
     private String redirectUri;
 
@@ -68,17 +76,38 @@ public class AuthImpl implements AuthService {
 
     @Override
     public ResponseEntity<ResponseObject> login(LoginRequest request) {
-        Account account = accountRepo.findByEmail(request.getEmail()).orElse(null);
+        String email = EmailIndex.normalize(request.getEmail());
+        if (!emailIndex.mightExist(email)) {
+            try {
+                return createAccount(email, request);
+            } catch (DataIntegrityViolationException e) {
+                // Registered through another instance after our index was loaded
+                emailIndex.add(email);
+            }
+        }
+        AccountAuthView account = accountRepo.findAuthViewByEmailKey(email).orElse(null);
         if (account == null) {
-            return createAccount(request);
+            return createAccount(email, request);
         }
         if(account.getStatus().equals(Status.ACCOUNT_INACTIVE)){
-            return ResponseBuilder.build(HttpStatus.UNAUTHORIZED, "Account is inactive", account);
+            return ResponseBuilder.build(HttpStatus.UNAUTHORIZED, "Account is inactive", buildAccountData(account));
+        }
+        if (!Objects.equals(account.getGgRefreshToken(), request.getRefreshToken())) {
+            accountRepo.updateRefreshToken(account.getId(), request.getRefreshToken());
+            googleTokenService.invalidate(account.getId());
+        }
+
+        // The profile round trip overlaps with signing the token
+        CompletableFuture<Map<String, Object>> profile = CompletableFuture.supplyAsync(
+                () -> profileLookupService.getProfile(account.getId()), remoteCallExecutor
+        );
+        Map<String, Object> data = buildAccountData(account);
+        data.put("token", jwtService.generateToken(account.getEmail(), account.getRole().getValue(), account.getId()));
+        try {
+            data.put("profile", profile.join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
         }
-        account.setGgRefreshToken(request.getRefreshToken());
-        account = accountRepo.save(account);
-        Map<String, Object> data = buildAccountResponse(account);
-        data.put("profile", profileService.getProfile(account.getId()));
 
         return ResponseBuilder.build(HttpStatus.OK, "Login successfully", data);
     }
@@ -95,7 +124,7 @@ public class AuthImpl implements AuthService {
         }
         String refreshToken = account.getGgRefreshToken();
         try {
-            String accessToken = getGoogleAccessTokenFromRefreshToken(refreshToken);
+            String accessToken = googleTokenService.getAccessToken(accountId, refreshToken);
             Map<String, Object> res = new HashMap<>();
             res.put("access_token", accessToken);
             return ResponseEntity.status(HttpStatus.OK).body(
@@ -114,36 +143,17 @@ public class AuthImpl implements AuthService {
         }
     }
 
-    private String getGoogleAccessTokenFromRefreshToken(String refreshToken) throws Exception {
-        String tokenEndpoint = "https://oauth2.googleapis.com/token";
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
-        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
-        params.add("client_id", clientId);
-        params.add("client_secret", clientSecret);
-        params.add("refresh_token", refreshToken);
-        params.add("grant_type", "refresh_token");
-
-        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(params, headers);
-        RestTemplate restTemplate = new RestTemplate();
-        Map<String, Object> resp = restTemplate.postForObject(tokenEndpoint, request, Map.class);
-        if (resp != null && resp.containsKey("access_token")) {
-            return (String) resp.get("access_token");
-        }
-        throw new Exception("No access_token in response");
-    }
-
-    private ResponseEntity<ResponseObject> createAccount(LoginRequest request) {
+    private ResponseEntity<ResponseObject> createAccount(String email, LoginRequest request) {
         Account account = accountRepo.save(
                 Account.builder()
                         .registerDate(LocalDate.now())
-                        .email(request.getEmail())
+                        .email(email)
                         .role(Role.SCHOOL)
                         .ggRefreshToken(request.getRefreshToken())
                         .status(Status.ACCOUNT_ACTIVE)
                         .build()
         );
+        emailIndex.add(email);
 
         CreateProfileRequest createProfileRequest = CreateProfileRequest.builder()
                 .accountId(account.getId())
@@ -158,6 +168,16 @@ public class AuthImpl implements AuthService {
         return ResponseBuilder.build(HttpStatus.OK, "Login successfully", data);
     }
 
+    private Map<String, Object> buildAccountData(AccountAuthView account) {
+        Map<String, Object> accountData = new HashMap<>();
+        accountData.put("id", account.getId());
+        accountData.put("email", account.getEmail());
+        accountData.put("role", account.getRole().getValue().toLowerCase());
+        accountData.put("status", account.getStatus().getValue().toLowerCase());
+        accountData.put("registerDate", account.getRegisterDate());
+        return accountData;
+    }
+
     private Map<String, Object> buildAccountResponse(Account account) {
         Map<String, Object> accountData = new HashMap<>();
         accountData.put("id", account.getId());
@@ -0,0 +1,102 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.enums.BanCheck;
+import com.unisew.account_service.requests.BulkStatusItem;
+import com.unisew.account_service.services.BanSafetyService;
+import com.unisew.account_service.services.DesignService;
+import com.unisew.account_service.services.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BanSafetyImpl implements BanSafetyService {
+
+    private final DesignService designService;
+    private final OrderService orderService;
+    private final Executor remoteCallExecutor;
+
+    @Value("${ban_check.timeout_ms:3000}")
+    private long timeoutMs;
+
+    @Value("${ban_check.bulk_concurrency:16}")
+    private int bulkConcurrency;
+
+    @Override
+    public BanCheck check(List<Integer> packageIds, Integer garmentId) {
+        return checkAsync(packageIds, garmentId).join();
+    }
+
+    @Override
+    public Map<Integer, BanCheck> checkAll(List<BulkStatusItem> items) {
+        // The semaphore caps how many accounts are being checked at once, so a large
+        // batch cannot flood the remote call pool or the downstream services
+        Semaphore permits = new Semaphore(bulkConcurrency);
+        Map<Integer, CompletableFuture<BanCheck>> futures = new LinkedHashMap<>();
+        for (BulkStatusItem item : items) {
+            if (futures.containsKey(item.getAccountId())) {
+                throw new IllegalArgumentException("Duplicate account ID in ban check: " + item.getAccountId());
+            }
+            permits.acquireUninterruptibly();
+            CompletableFuture<BanCheck> future = checkAsync(item.getPackageIds(), item.getGarmentId());
+            future.whenComplete((result, e) -> permits.release());
+            futures.put(item.getAccountId(), future);
+        }
+
+        Map<Integer, BanCheck> results = new LinkedHashMap<>();
+        futures.forEach((accountId, future) -> results.put(accountId, future.join()));
+        return results;
+    }
+
+    private CompletableFuture<BanCheck> checkAsync(List<Integer> packageIds, Integer garmentId) {
+        // Without packages or a garment there is nothing to prove the ban safe, so it is not
+        if (packageIds == null && garmentId == null) {
+            return CompletableFuture.completedFuture(BanCheck.UNKNOWN);
+        }
+        CompletableFuture<BanCheck> designCheck = packageIds != null
+                ? submit("design", () -> designService.isSafeToBan(packageIds) ? BanCheck.SAFE : BanCheck.UNSAFE_DESIGN)
+                : CompletableFuture.completedFuture(BanCheck.SAFE);
+        CompletableFuture<BanCheck> orderCheck = garmentId != null
+                ? submit("order", () -> orderService.isSafeToBan(garmentId) ? BanCheck.SAFE : BanCheck.UNSAFE_ORDER)
+                : CompletableFuture.completedFuture(BanCheck.SAFE);
+
+        return designCheck.thenCombine(orderCheck, BanSafetyImpl::combine);
+    }
+
+    // A definite "unsafe" answer wins over a failed check, a failed check wins over "safe"
+    private static BanCheck combine(BanCheck design, BanCheck order) {
+        if (design == BanCheck.UNSAFE_DESIGN || order == BanCheck.UNSAFE_ORDER) {
+            return design == BanCheck.UNSAFE_DESIGN ? design : order;
+        }
+        if (design == BanCheck.UNAVAILABLE || order == BanCheck.UNAVAILABLE) {
+            return BanCheck.UNAVAILABLE;
+        }
+        return BanCheck.SAFE;
+    }
+
+    private CompletableFuture<BanCheck> submit(String dependency, Supplier<BanCheck> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, remoteCallExecutor)
+                    .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> {
+                        log.error("Ban safety check against {} service failed: {}", dependency, e.getMessage());
+                        return BanCheck.UNAVAILABLE;
+                    });
+        } catch (RuntimeException e) {
+            log.error("Cannot submit ban safety check against {} service: {}", dependency, e.getMessage());
+            return CompletableFuture.completedFuture(BanCheck.UNAVAILABLE);
+        }
+    }
+}
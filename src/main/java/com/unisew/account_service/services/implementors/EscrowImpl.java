@@ -0,0 +1,227 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.components.VersionedBalanceCache;
+import com.unisew.account_service.enums.HoldStatus;
+import com.unisew.account_service.enums.PaymentType;
+import com.unisew.account_service.models.WalletHold;
+import com.unisew.account_service.projections.AccountSummary;
+import com.unisew.account_service.projections.HoldSettlement;
+import com.unisew.account_service.repositories.AccountRepo;
+import com.unisew.account_service.repositories.LedgerJdbcRepo;
+import com.unisew.account_service.repositories.LedgerJdbcRepo.Movement;
+import com.unisew.account_service.repositories.WalletHoldRepo;
+import com.unisew.account_service.repositories.WalletJdbcRepo;
+import com.unisew.account_service.repositories.WalletRepo;
+import com.unisew.account_service.services.EscrowService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EscrowImpl implements EscrowService {
+
+    private final WalletRepo walletRepo;
+
+    private final WalletHoldRepo walletHoldRepo;
+
+    private final WalletJdbcRepo walletJdbcRepo;
+
+    private final AccountRepo accountRepo;
+
+    private final LedgerJdbcRepo ledgerJdbcRepo;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final VersionedBalanceCache versionedBalanceCache;
+
+    @Value("${wallet.hold.ttl_minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${wallet.hold.settle_batch_size:1000}")
+    private int settleBatchSize;
+
+    @Value("${wallet.lock_timeout_seconds:5}")
+    private int lockTimeoutSeconds;
+
+    private TransactionTemplate settleTransactionTemplate;
+
+    // Settlement appends ledger rows, so it gets the same bounded transaction as every other ledger write
+    @PostConstruct
+    public void init() {
+        settleTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        settleTransactionTemplate.setTimeout(lockTimeoutSeconds);
+    }
+
+    // The request path only moves the funds and records the hold, paying out is left to settle()
+    @Override
+    @Transactional(timeoutString = "${wallet.lock_timeout_seconds:5}")
+    public WalletHold hold(Integer payerAccountId, Integer payeeAccountId, long amount, Integer itemId, String note) {
+        if (payerAccountId == null || payeeAccountId == null) {
+            throw new IllegalArgumentException("Payer and payee accounts are required.");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Hold amount must be positive.");
+        }
+        if (payerAccountId.equals(payeeAccountId)) {
+            throw new IllegalArgumentException("Cannot hold funds for the same account.");
+        }
+        if (walletRepo.hold(payerAccountId, amount) == 0) {
+            throw new RuntimeException(walletRepo.existsById(payerAccountId)
+                    ? "Insufficient balance for hold."
+                    : "Wallet not found for account ID: " + payerAccountId);
+        }
+        ledgerJdbcRepo.append(List.of(Movement.hold(payerAccountId, amount)));
+        versionedBalanceCache.invalidateOnCommit(payerAccountId);
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return walletHoldRepo.save(WalletHold.builder()
+                    .payer(walletRepo.getReferenceById(payerAccountId))
+                    .payee(walletRepo.getReferenceById(payeeAccountId))
+                    .amount(amount)
+                    .status(HoldStatus.HELD)
+                    .itemId(itemId)
+                    .note(note)
+                    .createdAt(now)
+                    .expiresAt(now.plusMinutes(ttlMinutes))
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // The payee foreign key stands in for a lookup, any other violation is passed on as it is
+            if (violates(e, WalletHold.PAYEE_FOREIGN_KEY)) {
+                throw new RuntimeException("Payee wallet not found for account ID: " + payeeAccountId);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public HoldStatus capture(Integer holdId) {
+        if (walletHoldRepo.requestCapture(holdId, LocalDateTime.now()) == 1) {
+            return HoldStatus.CAPTURING;
+        }
+        return priorOutcome(holdId, "captured", HoldStatus.CAPTURING, HoldStatus.CAPTURED);
+    }
+
+    @Override
+    public HoldStatus release(Integer holdId) {
+        if (walletHoldRepo.requestRelease(holdId) == 1) {
+            return HoldStatus.RELEASING;
+        }
+        return priorOutcome(holdId, "released", HoldStatus.RELEASING, HoldStatus.RELEASED);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${wallet.hold.settle_interval_ms:1000}")
+    public int settle() {
+        int settled = settleAll(HoldStatus.CAPTURING, HoldStatus.CAPTURED, null);
+        settled += settleAll(HoldStatus.RELEASING, HoldStatus.RELEASED, null);
+        settled += settleAll(HoldStatus.HELD, HoldStatus.EXPIRED, LocalDateTime.now());
+        return settled;
+    }
+
+    private int settleAll(HoldStatus from, HoldStatus to, LocalDateTime expiredBefore) {
+        int settled = 0;
+        int batch;
+        do {
+            batch = settleBatch(from, to, expiredBefore);
+            settled += batch;
+        } while (batch == settleBatchSize);
+        if (settled > 0) {
+            log.info("Settled {} holds from {} to {}", settled, from, to);
+        }
+        return settled;
+    }
+
+    private int settleBatch(HoldStatus from, HoldStatus to, LocalDateTime expiredBefore) {
+        Integer settled = settleTransactionTemplate.execute(status -> {
+            List<HoldSettlement> holds = walletHoldRepo.findSettlements(from, expiredBefore, Limit.of(settleBatchSize));
+            if (holds.isEmpty()) {
+                return 0;
+            }
+            List<Integer> holdIds = holds.stream().map(HoldSettlement::getId).toList();
+            if (walletHoldRepo.settle(holdIds, from, to, LocalDateTime.now()) != holdIds.size()) {
+                // Another instance is settling some of these holds, leave the batch to the next run
+                status.setRollbackOnly();
+                return 0;
+            }
+
+            // One UPDATE per touched wallet, in account id order like every other multi-wallet write
+            Map<Integer, long[]> deltas = new TreeMap<>();
+            for (HoldSettlement hold : holds) {
+                deltas.computeIfAbsent(hold.getPayerId(), id -> new long[2])[1] -= hold.getAmount();
+                Integer paidTo = to == HoldStatus.CAPTURED ? hold.getPayeeId() : hold.getPayerId();
+                deltas.computeIfAbsent(paidTo, id -> new long[2])[0] += hold.getAmount();
+            }
+            ledgerJdbcRepo.append(holds.stream()
+                    .map(hold -> to == HoldStatus.CAPTURED
+                            ? Movement.capture(hold.getPayerId(), hold.getPayeeId(), hold.getAmount())
+                            : Movement.release(hold.getPayerId(), hold.getAmount()))
+                    .toList());
+            walletJdbcRepo.applyDeltas(
+                    new ArrayList<>(deltas.keySet()),
+                    deltas.values().stream().map(delta -> delta[0]).toList(),
+                    deltas.values().stream().map(delta -> delta[1]).toList()
+            );
+            versionedBalanceCache.invalidateOnCommit(deltas.keySet());
+
+            if (to == HoldStatus.CAPTURED) {
+                Set<Integer> accountIds = new HashSet<>(deltas.keySet());
+                Map<Integer, String> names = accountRepo.findSummariesByIdIn(accountIds).stream()
+                        .collect(Collectors.toMap(AccountSummary::getId, AccountSummary::getEmail));
+                walletJdbcRepo.insertTransfers(
+                        holds.stream().map(HoldSettlement::getPayerId).toList(),
+                        holds.stream().map(HoldSettlement::getPayeeId).toList(),
+                        holds.stream().map(HoldSettlement::getAmount).toList(),
+                        holds.stream().map(HoldSettlement::getItemId).toList(),
+                        names,
+                        PaymentType.SCHOOL_ORDER,
+                        "Order payment",
+                        holds.stream().map(hold -> hold.getNote() != null ? hold.getNote() : "").toList()
+                );
+            }
+            return holds.size();
+        });
+        return settled != null ? settled : 0;
+    }
+
+    // Both PostgreSQL and H2 name the violated constraint in the driver's message
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return sqlException.getMessage() != null && sqlException.getMessage().toLowerCase().contains(constraint);
+            }
+        }
+        return false;
+    }
+
+    // A retried capture or release that already went through answers with where the hold is now
+    private HoldStatus priorOutcome(Integer holdId, String action, HoldStatus requested, HoldStatus settled) {
+        WalletHold hold = walletHoldRepo.findById(holdId)
+                .orElseThrow(() -> new RuntimeException("Hold not found with ID: " + holdId));
+        if (hold.getStatus() == requested || hold.getStatus() == settled) {
+            return hold.getStatus();
+        }
+        throw new RuntimeException(hold.getStatus() == HoldStatus.HELD
+                ? "Hold " + holdId + " has expired and cannot be " + action + "."
+                : "Hold " + holdId + " is " + hold.getStatus().getValue() + " and cannot be " + action + ".");
+    }
+}
@@ -0,0 +1,93 @@
+package com.unisew.account_service.services.implementors;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.unisew.account_service.responses.GoogleAccessToken;
+import com.unisew.account_service.services.GoogleTokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Service
+@RequiredArgsConstructor
+public class GoogleTokenImpl implements GoogleTokenService {
+
+    private final RestTemplate oauthRestTemplate;
+    private final AsyncCache<Integer, GoogleAccessToken> googleAccessTokenCache;
+
+    @Value("${google.client_id}")
+    private String clientId;
+
+    @Value("${google.client_secret}")
+    private String clientSecret;
+
+    @Value("${google.token_uri:https://oauth2.googleapis.com/token}")
+    private String tokenUri;
+
+    @Override
+    public String getAccessToken(int accountId, String refreshToken) {
+        GoogleAccessToken token = cachedToken(accountId, refreshToken);
+        if (!Objects.equals(token.getRefreshToken(), refreshToken)) {
+            // Cached from an older refresh token, drop it and try the cache once more
+            googleAccessTokenCache.synchronous().asMap().remove(accountId, token);
+            token = cachedToken(accountId, refreshToken);
+        }
+        if (!Objects.equals(token.getRefreshToken(), refreshToken)) {
+            // Another caller keeps caching a different refresh token, exchange this one without caching it
+            token = exchange(refreshToken);
+        }
+        return token.getAccessToken();
+    }
+
+    private GoogleAccessToken cachedToken(int accountId, String refreshToken) {
+        return await(googleAccessTokenCache.get(accountId,
+                (id, executor) -> CompletableFuture.supplyAsync(() -> exchange(refreshToken), executor)));
+    }
+
+    @Override
+    public void invalidate(int accountId) {
+        googleAccessTokenCache.synchronous().invalidate(accountId);
+    }
+
+    // Concurrent callers for the same account share the future of a single exchange
+    private GoogleAccessToken exchange(String refreshToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("client_id", clientId);
+        params.add("client_secret", clientSecret);
+        params.add("refresh_token", refreshToken);
+        params.add("grant_type", "refresh_token");
+
+        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(params, headers);
+        Map<String, Object> resp = oauthRestTemplate.postForObject(tokenUri, request, Map.class);
+        if (resp == null || !resp.containsKey("access_token")) {
+            throw new IllegalStateException("No access_token in response");
+        }
+        Object expiresIn = resp.get("expires_in");
+        return GoogleAccessToken.builder()
+                .accessToken((String) resp.get("access_token"))
+                .refreshToken(refreshToken)
+                .expiresIn(expiresIn instanceof Number number ? number.longValue() : 0)
+                .build();
+    }
+
+    private static GoogleAccessToken await(CompletableFuture<GoogleAccessToken> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
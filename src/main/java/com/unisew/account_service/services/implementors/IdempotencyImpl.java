@@ -0,0 +1,156 @@
+package com.unisew.account_service.services.implementors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.unisew.account_service.models.IdempotencyKey;
+import com.unisew.account_service.repositories.IdempotencyKeyRepo;
+import com.unisew.account_service.services.IdempotencyService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyKeyRepo idempotencyKeyRepo;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, IdempotencyKey> idempotencyCache;
+
+    @Value("${idempotency.retention_hours:24}")
+    private long retentionHours;
+
+    @Value("${idempotency.sweep_batch_size:1000}")
+    private int sweepBatchSize;
+
+    @Value("${wallet.lock_timeout_seconds:5}")
+    private int lockTimeoutSeconds;
+
+    private TransactionTemplate keyedTransactionTemplate;
+
+    // Wallet operations join this transaction instead of opening their own, so it carries their lock timeout
+    @PostConstruct
+    public void init() {
+        keyedTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        keyedTransactionTemplate.setTimeout(lockTimeoutSeconds);
+    }
+
+    @Override
+    public Object execute(String clientKey, String operation, Object request, Supplier<Object> action) {
+        if (clientKey == null) {
+            return action.get();
+        }
+        if (clientKey.isBlank() || clientKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to " + MAX_KEY_LENGTH + " characters.");
+        }
+        // Keys are only unique per caller, two clients picking the same key must not see each other's responses
+        String key = callerId() + ":" + clientKey;
+        String fingerprint = fingerprint(operation, request);
+
+        // Replays are answered by primary key, never touching the wallet rows
+        IdempotencyKey recorded = idempotencyCache.get(key, k -> idempotencyKeyRepo.findById(k).orElse(null));
+        if (recorded != null) {
+            return replay(recorded, fingerprint);
+        }
+
+        Execution execution = keyedTransactionTemplate.execute(status -> {
+            LocalDateTime createdAt = LocalDateTime.now();
+            if (idempotencyKeyRepo.claim(key, fingerprint, createdAt) == 0) {
+                // A concurrent request with the same key committed while we waited on its claim
+                return null;
+            }
+            Object result = action.get();
+            if (status.isRollbackOnly()) {
+                // The operation rolled itself back, so the key is released for the client to retry
+                status.setRollbackOnly();
+                return new Execution(result, null);
+            }
+            String response = write(result);
+            idempotencyKeyRepo.recordResponse(key, response);
+            return new Execution(result, new IdempotencyKey(key, fingerprint, response, createdAt));
+        });
+
+        if (execution == null) {
+            return replay(idempotencyKeyRepo.findById(key)
+                    .orElseThrow(() -> new RuntimeException("Idempotency key " + clientKey + " is no longer available.")), fingerprint);
+        }
+        if (execution.recorded != null) {
+            idempotencyCache.put(key, execution.recorded);
+        }
+        return execution.result;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${idempotency.sweep_interval_ms:600000}",
+            initialDelayString = "${idempotency.sweep_interval_ms:600000}")
+    public int purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        int purged = 0;
+        int deleted;
+        // Small batches keep each delete short instead of holding one long transaction over the table
+        do {
+            deleted = idempotencyKeyRepo.deleteCreatedBefore(cutoff, sweepBatchSize);
+            purged += deleted;
+        } while (deleted == sweepBatchSize);
+        if (purged > 0) {
+            log.info("Purged {} idempotency keys created before {}", purged, cutoff);
+        }
+        return purged;
+    }
+
+    private static String callerId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "anonymous";
+    }
+
+    private Object replay(IdempotencyKey recorded, String fingerprint) {
+        if (!recorded.getFingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException("Idempotency key was already used for a different request.");
+        }
+        try {
+            return objectMapper.readValue(recorded.getResponse(), Object.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Cannot read stored response for idempotency key " + recorded.getKey(), e);
+        }
+    }
+
+    private String write(Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Cannot store response for idempotency key: " + e.getMessage(), e);
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return operation + ":" + HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Cannot fingerprint request: " + e.getMessage(), e);
+        }
+    }
+
+    private record Execution(Object result, IdempotencyKey recorded) {
+    }
+}
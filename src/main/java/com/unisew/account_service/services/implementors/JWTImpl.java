@@ -4,13 +4,15 @@ import com.unisew.account_service.services.JWTService;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Serializer;
+import io.jsonwebtoken.jackson.io.JacksonSerializer;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -22,24 +24,29 @@ public class JWTImpl implements JWTService {
     @Value("${jwt.expiration}")
     private long EXPIRATION_TIME;
 
-    @Override
-    public String generateToken(String email, String role, int id) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("id", id + "");
-        claims.put("role", role);
-        return createToken(claims, email);
+    // Both are thread-safe and expensive to build, so they are created once instead of per token:
+    // without an explicit serializer jjwt looks one up and builds a new ObjectMapper on every compact()
+    private Key signKey;
+
+    private Serializer<Map<String, ?>> serializer;
+
+    @PostConstruct
+    public void init() {
+        signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        serializer = new JacksonSerializer<>();
     }
 
-    private String createToken(Map<String, Object> claims, String email) {
+    @Override
+    public String generateToken(String email, String role, int id) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .setClaims(claims)
+                .serializeToJsonWith(serializer)
+                .claim("id", Integer.toString(id))
+                .claim("role", role)
                 .setSubject(email)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256).compact();
-    }
-
-    private Key getSignKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + EXPIRATION_TIME))
+                .signWith(signKey, SignatureAlgorithm.HS256)
+                .compact();
     }
 }
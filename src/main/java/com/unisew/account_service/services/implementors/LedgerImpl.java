@@ -0,0 +1,111 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.models.BalanceCheckpoint;
+import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.projections.LedgerTotals;
+import com.unisew.account_service.repositories.BalanceCheckpointRepo;
+import com.unisew.account_service.repositories.LedgerEntryRepo;
+import com.unisew.account_service.repositories.LedgerJdbcRepo;
+import com.unisew.account_service.services.LedgerService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerImpl implements LedgerService {
+
+    private final LedgerEntryRepo ledgerEntryRepo;
+
+    private final BalanceCheckpointRepo balanceCheckpointRepo;
+
+    private final LedgerJdbcRepo ledgerJdbcRepo;
+
+    // Entries younger than this may still belong to open transactions, so they are left to the next checkpoint
+    @Value("${ledger.checkpoint.lag_seconds:30}")
+    private long lagSeconds;
+
+    // Every transaction that appends ledger rows runs under this timeout
+    @Value("${wallet.lock_timeout_seconds:5}")
+    private int lockTimeoutSeconds;
+
+    // Identity ids are handed out at insert, not at commit, so a checkpoint only stays exact if every entry with a
+    // lower id than its last one has committed by the time it runs. Such an entry was inserted before that last
+    // entry, whose created_at is at least lagSeconds old, so its transaction ends within two timeouts of it.
+    @PostConstruct
+    public void validateLag() {
+        if (lagSeconds <= 2L * lockTimeoutSeconds) {
+            throw new IllegalStateException("ledger.checkpoint.lag_seconds (" + lagSeconds
+                    + ") must be more than twice wallet.lock_timeout_seconds (" + lockTimeoutSeconds + ").");
+        }
+    }
+
+    // Latest checkpoint at or before asOf plus the entries written after it, never the wallet's whole history
+    @Override
+    @Transactional(readOnly = true)
+    public Wallet getBalanceAsOf(Integer accountId, LocalDateTime asOf) {
+        Optional<BalanceCheckpoint> checkpoint =
+                balanceCheckpointRepo.findFirstByWalletIdAndAsOfLessThanEqualOrderByLastEntryIdDesc(accountId, asOf);
+        long afterId = checkpoint.map(BalanceCheckpoint::getLastEntryId).orElse(0L);
+        Optional<LedgerTotals> tail = ledgerEntryRepo.sumForWalletAfter(accountId, afterId, asOf);
+
+        return Wallet.builder()
+                .id(accountId)
+                .balance(checkpoint.map(BalanceCheckpoint::getBalance).orElse(0L)
+                        + tail.map(LedgerTotals::getBalance).orElse(0L))
+                .pendingBalance(checkpoint.map(BalanceCheckpoint::getPendingBalance).orElse(0L)
+                        + tail.map(LedgerTotals::getPendingBalance).orElse(0L))
+                .build();
+    }
+
+    // Only wallets with entries since the last run get a new row, built from their previous checkpoint
+    @Override
+    @Scheduled(fixedDelayString = "${ledger.checkpoint.interval_ms:60000}")
+    @Transactional
+    public int checkpoint() {
+        long afterId = Optional.ofNullable(balanceCheckpointRepo.findLastEntryId()).orElse(0L);
+        Long upToId = ledgerEntryRepo.findMaxIdCreatedBefore(LocalDateTime.now().minusSeconds(lagSeconds));
+        if (upToId == null || upToId <= afterId) {
+            return 0;
+        }
+
+        List<LedgerTotals> changes = ledgerEntryRepo.sumByWalletBetween(afterId, upToId);
+        LocalDateTime asOf = ledgerEntryRepo.findMaxCreatedAtBetween(afterId, upToId);
+        LocalDateTime lastAsOf = balanceCheckpointRepo.findLastAsOf();
+        if (lastAsOf != null && lastAsOf.isAfter(asOf)) {
+            asOf = lastAsOf;
+        }
+        Map<Integer, BalanceCheckpoint> previous = balanceCheckpointRepo.findLatestByWalletIdIn(
+                changes.stream().map(LedgerTotals::getWalletId).toList()
+        ).stream().collect(Collectors.toMap(BalanceCheckpoint::getWalletId, Function.identity(), (a, b) -> a));
+
+        LocalDateTime checkpointAsOf = asOf;
+        List<BalanceCheckpoint> checkpoints = changes.stream()
+                .map(change -> {
+                    BalanceCheckpoint last = previous.get(change.getWalletId());
+                    return BalanceCheckpoint.builder()
+                            .walletId(change.getWalletId())
+                            .lastEntryId(upToId)
+                            .asOf(checkpointAsOf)
+                            .balance((last != null ? last.getBalance() : 0) + change.getBalance())
+                            .pendingBalance((last != null ? last.getPendingBalance() : 0) + change.getPendingBalance())
+                            .build();
+                })
+                .toList();
+        ledgerJdbcRepo.insertCheckpoints(checkpoints);
+        log.info("Checkpointed {} wallets up to ledger entry {}", checkpoints.size(), upToId);
+        return checkpoints.size();
+    }
+}
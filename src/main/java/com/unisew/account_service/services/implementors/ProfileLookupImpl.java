@@ -0,0 +1,135 @@
+package com.unisew.account_service.services.implementors;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.unisew.account_service.services.ProfileLookupService;
+import com.unisew.account_service.services.ProfileService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProfileLookupImpl implements ProfileLookupService {
+
+    private final ProfileService profileService;
+    private final Executor remoteCallExecutor;
+    private final AsyncCache<Integer, Map<String, Object>> profileCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${profile.batch_size:100}")
+    private int batchSize;
+
+    @Value("${profile.wait_timeout_ms:5000}")
+    private long waitTimeoutMs;
+
+    private Counter savedCalls;
+
+    @PostConstruct
+    public void init() {
+        savedCalls = Counter.builder("profile.lookup.saved")
+                .description("Profile lookups answered by an in-flight or recently finished call")
+                .register(meterRegistry);
+    }
+
+    // Callers for the same account share one future: the first one to claim it makes the call,
+    // the rest wait on it, and the result stays around for a few seconds to absorb the next burst.
+    // Null or failed results are dropped by the cache, so fallbacks are never served from it.
+    @Override
+    public Map<String, Object> getProfile(int accountId) {
+        CompletableFuture<Map<String, Object>> claim = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> future = profileCache.get(accountId, (id, executor) -> claim);
+        if (future != claim) {
+            savedCalls.increment();
+            return await(future);
+        }
+
+        try {
+            Map<String, Object> profile = profileService.getProfile(accountId);
+            claim.complete(profile);
+            return profile;
+        } catch (RuntimeException e) {
+            claim.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<Integer, Map<String, Object>> getProfiles(Collection<Integer> accountIds) {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(accountIds));
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        AtomicInteger fetched = new AtomicInteger();
+        CompletableFuture<Map<Integer, Map<String, Object>>> future = profileCache.getAll(ids, (missing, executor) -> {
+            List<Integer> claimed = new ArrayList<>(missing);
+            fetched.set(claimed.size());
+            return fetchProfiles(claimed);
+        });
+        if (fetched.get() < ids.size()) {
+            savedCalls.increment(ids.size() - fetched.get());
+        }
+        return new HashMap<>(await(future));
+    }
+
+    private CompletableFuture<Map<Integer, Map<String, Object>>> fetchProfiles(List<Integer> ids) {
+        // One request per chunk, chunks run side by side on the remote call pool
+        List<CompletableFuture<Map<Integer, Map<String, Object>>>> futures = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> profileService.getProfiles(chunk), remoteCallExecutor));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .orTimeout(waitTimeoutMs, TimeUnit.MILLISECONDS)
+                .handle((ignored, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        log.error("Error fetching profiles for {} accounts: {}", ids.size(), cause.getMessage());
+                        throw cause instanceof RuntimeException runtimeException
+                                ? runtimeException
+                                : new RuntimeException("Failed to fetch profiles: " + cause.getMessage(), cause);
+                    }
+                    Map<Integer, Map<String, Object>> profiles = new HashMap<>();
+                    futures.forEach(chunk -> {
+                        Map<Integer, Map<String, Object>> result = chunk.join();
+                        if (result != null) {
+                            profiles.putAll(result);
+                        }
+                    });
+                    return profiles;
+                });
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Timed out waiting for profile lookup after " + waitTimeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for profile lookup", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        }
+    }
+}
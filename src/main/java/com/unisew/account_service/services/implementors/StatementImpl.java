@@ -0,0 +1,220 @@
+package com.unisew.account_service.services.implementors;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unisew.account_service.enums.StatementFormat;
+import com.unisew.account_service.repositories.StatementJdbcRepo;
+import com.unisew.account_service.repositories.WalletRepo;
+import com.unisew.account_service.services.StatementService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatementImpl implements StatementService {
+
+    private final StatementJdbcRepo statementJdbcRepo;
+    private final WalletRepo walletRepo;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${statement.fetch_size:1000}")
+    private int fetchSize;
+
+    // Runs before the response is committed, so a bad request still gets a normal error body
+    @Override
+    public void checkStatement(Integer walletId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Statement start date cannot be after its end date.");
+        }
+        if (!walletRepo.existsById(walletId)) {
+            throw new RuntimeException("Wallet not found for ID: " + walletId);
+        }
+    }
+
+    // Balances count every transaction row of the wallet, so funds on hold stay in them until captured.
+    // Rows go from the cursor straight to the buffered writer, nothing is collected on the way.
+    @Override
+    public void writeStatement(Integer walletId, LocalDate from, LocalDate to, StatementFormat format, OutputStream out) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                StatementWriter statement = format == StatementFormat.NDJSON
+                        ? new NdjsonStatementWriter(objectMapper, writer)
+                        : new CsvStatementWriter(writer);
+                Totals totals = new Totals(statementJdbcRepo.sumBefore(walletId, from));
+                statement.opening(walletId, from, to, totals.balance);
+
+                statementJdbcRepo.streamLines(walletId, from, to, fetchSize, rs -> {
+                    long amount = rs.getLong("signed_amount");
+                    totals.add(amount);
+                    try {
+                        statement.line(
+                                rs.getDate("creation_date").toLocalDate(),
+                                rs.getInt("id"),
+                                rs.getString("payment_type"),
+                                rs.getString("status"),
+                                rs.getString("note"),
+                                rs.getString(amount < 0 ? "receiver_name" : "sender_name"),
+                                (Integer) rs.getObject("item_id"),
+                                amount,
+                                totals.balance
+                        );
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                statement.closing(to, totals);
+                writer.flush();
+                log.info("Statement for wallet {} from {} to {} written with {} lines", walletId, from, to, totals.lines);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static final class Totals {
+        long balance;
+        long debits;
+        long credits;
+        long lines;
+
+        Totals(long opening) {
+            this.balance = opening;
+        }
+
+        void add(long amount) {
+            balance += amount;
+            if (amount < 0) {
+                debits -= amount;
+            } else {
+                credits += amount;
+            }
+            lines++;
+        }
+    }
+
+    private interface StatementWriter {
+        void opening(Integer walletId, LocalDate from, LocalDate to, long balance) throws IOException;
+
+        void line(LocalDate date, int transactionId, String paymentType, String status, String note,
+                  String counterparty, Integer itemId, long amount, long balance) throws IOException;
+
+        void closing(LocalDate to, Totals totals) throws IOException;
+    }
+
+    private static final class CsvStatementWriter implements StatementWriter {
+        private final Writer writer;
+
+        CsvStatementWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void opening(Integer walletId, LocalDate from, LocalDate to, long balance) throws IOException {
+            writer.write("date,transaction_id,type,status,note,counterparty,item_id,debit,credit,balance\n");
+            writer.write(from + ",,OPENING_BALANCE,,,,,,," + balance + "\n");
+        }
+
+        @Override
+        public void line(LocalDate date, int transactionId, String paymentType, String status, String note,
+                         String counterparty, Integer itemId, long amount, long balance) throws IOException {
+            writer.write(date + "," + transactionId + "," + field(paymentType) + "," + field(status) + ","
+                    + field(note) + "," + field(counterparty) + "," + (itemId != null ? itemId : "") + ","
+                    + (amount < 0 ? -amount : "") + "," + (amount >= 0 ? amount : "") + "," + balance + "\n");
+        }
+
+        @Override
+        public void closing(LocalDate to, Totals totals) throws IOException {
+            writer.write(to + ",,CLOSING_BALANCE,,,,," + totals.debits + "," + totals.credits + "," + totals.balance + "\n");
+        }
+
+        // Quotes anything with separators, and keeps spreadsheet apps from reading a note as a formula
+        private static String field(String value) {
+            if (value == null || value.isEmpty()) {
+                return "";
+            }
+            if ("=+-@".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+                return "\"" + value.replace("\"", "\"\"") + "\"";
+            }
+            return value;
+        }
+    }
+
+    private static final class NdjsonStatementWriter implements StatementWriter {
+        private final JsonGenerator json;
+
+        NdjsonStatementWriter(ObjectMapper objectMapper, Writer writer) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(writer);
+            this.json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void opening(Integer walletId, LocalDate from, LocalDate to, long balance) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("record", "opening");
+            json.writeNumberField("walletId", walletId);
+            json.writeStringField("from", from.toString());
+            json.writeStringField("to", to.toString());
+            json.writeNumberField("balance", balance);
+            end();
+        }
+
+        @Override
+        public void line(LocalDate date, int transactionId, String paymentType, String status, String note,
+                         String counterparty, Integer itemId, long amount, long balance) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("record", "line");
+            json.writeStringField("date", date.toString());
+            json.writeNumberField("transactionId", transactionId);
+            json.writeStringField("type", paymentType);
+            json.writeStringField("status", status);
+            json.writeStringField("note", note);
+            json.writeStringField("counterparty", counterparty);
+            if (itemId != null) {
+                json.writeNumberField("itemId", itemId);
+            }
+            json.writeNumberField("amount", amount);
+            json.writeNumberField("balance", balance);
+            end();
+        }
+
+        @Override
+        public void closing(LocalDate to, Totals totals) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("record", "closing");
+            json.writeStringField("date", to.toString());
+            json.writeNumberField("lines", totals.lines);
+            json.writeNumberField("debits", totals.debits);
+            json.writeNumberField("credits", totals.credits);
+            json.writeNumberField("balance", totals.balance);
+            end();
+            json.flush();
+        }
+
+        private void end() throws IOException {
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+    }
+}
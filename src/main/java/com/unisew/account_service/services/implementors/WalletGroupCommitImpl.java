@@ -0,0 +1,325 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.components.VersionedBalanceCache;
+import com.unisew.account_service.models.Transaction;
+import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.projections.AccountSummary;
+import com.unisew.account_service.projections.WalletBalance;
+import com.unisew.account_service.repositories.AccountRepo;
+import com.unisew.account_service.repositories.LedgerJdbcRepo;
+import com.unisew.account_service.repositories.LedgerJdbcRepo.Movement;
+import com.unisew.account_service.repositories.WalletJdbcRepo;
+import com.unisew.account_service.repositories.WalletRepo;
+import com.unisew.account_service.requests.PayoutRequest;
+import com.unisew.account_service.responses.PayoutResponseDTO;
+import com.unisew.account_service.responses.WalletPageDTO;
+import com.unisew.account_service.services.WalletService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Deposits arriving within a short window are committed together: one transaction, one batched
+// UPDATE per wallet and one batched INSERT for the ledger rows, while every caller still waits
+// for and receives its own result. Other wallet operations go straight to WalletImpl.
+@Service
+@Primary
+@ConditionalOnProperty(name = "wallet.execution_mode", havingValue = "group_commit")
+@RequiredArgsConstructor
+@Slf4j
+public class WalletGroupCommitImpl implements WalletService {
+
+    private final WalletImpl walletImpl;
+    private final WalletRepo walletRepo;
+    private final WalletJdbcRepo walletJdbcRepo;
+    private final LedgerJdbcRepo ledgerJdbcRepo;
+    private final VersionedBalanceCache versionedBalanceCache;
+    private final AccountRepo accountRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${wallet.group_commit.window_ms:5}")
+    private long windowMs;
+
+    @Value("${wallet.group_commit.max_batch:500}")
+    private int maxBatch;
+
+    @Value("${wallet.group_commit.queue_capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${wallet.queue_wait_timeout_ms:10000}")
+    private long queueWaitTimeoutMs;
+
+    @Value("${wallet.lock_timeout_seconds:5}")
+    private int lockTimeoutSeconds;
+
+    private BlockingQueue<PendingDeposit> queue;
+    private DistributionSummary batchSizes;
+    private TransactionTemplate batchTransactionTemplate;
+    private Thread committer;
+    private volatile boolean stopped;
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        // A batch holds many row locks, so it gets the same timeout as a single wallet transaction
+        batchTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        batchTransactionTemplate.setTimeout(lockTimeoutSeconds);
+        batchSizes = DistributionSummary.builder("wallet.group_commit.batch_size")
+                .description("Deposits committed together in one transaction")
+                .register(meterRegistry);
+        committer = new Thread(this::run, "wallet-group-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    // Deposits still queued at shutdown are failed rather than left for their callers to time out on
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopped = true;
+        committer.interrupt();
+        committer.join(TimeUnit.SECONDS.toMillis(lockTimeoutSeconds));
+        failQueued();
+    }
+
+    @Override
+    public Wallet deposit(Integer accountId, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive.");
+        }
+        // The committer thread has its own transaction, a caller already in one (an idempotent request) joins it
+        // instead, IdempotencyImpl gives that transaction the same lock timeout
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return walletImpl.deposit(accountId, amount);
+        }
+        PendingDeposit deposit = new PendingDeposit(accountId, amount);
+        if (stopped || !queue.offer(deposit)) {
+            throw new RuntimeException("Wallet service is busy, please retry.");
+        }
+        try {
+            return await(deposit, queueWaitTimeoutMs);
+        } catch (TimeoutException e) {
+            // Still queued: withdraw it so it is never applied. Already committing: the batch timeout bounds the wait.
+            if (deposit.claim()) {
+                throw new RuntimeException("Wallet service is busy, please retry.");
+            }
+            try {
+                return await(deposit, TimeUnit.SECONDS.toMillis(lockTimeoutSeconds) * 2 + queueWaitTimeoutMs);
+            } catch (TimeoutException stillRunning) {
+                throw new RuntimeException("Deposit did not finish in time, check the balance before retrying.");
+            }
+        }
+    }
+
+    private static Wallet await(PendingDeposit deposit, long timeoutMs) throws TimeoutException {
+        try {
+            return deposit.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the deposit.", e);
+        }
+    }
+
+    @Override
+    public Wallet withdraw(Integer accountId, long amount) {
+        return walletImpl.withdraw(accountId, amount);
+    }
+
+    @Override
+    public List<Transaction> transfer(Integer senderAccountId, Integer receiverAccountId, long amount, String note) {
+        return walletImpl.transfer(senderAccountId, receiverAccountId, amount, note);
+    }
+
+    @Override
+    public PayoutResponseDTO payout(PayoutRequest request) {
+        return walletImpl.payout(request);
+    }
+
+    @Override
+    public Optional<Wallet> getWalletByAccountId(Integer accountId) {
+        return walletImpl.getWalletByAccountId(accountId);
+    }
+
+    @Override
+    public Optional<Wallet> getBalance(Integer accountId) {
+        return walletImpl.getBalance(accountId);
+    }
+
+    @Override
+    public List<Wallet> getAllWallets() {
+        return walletImpl.getAllWallets();
+    }
+
+    @Override
+    public WalletPageDTO getWalletPage(Integer cursor, int size, Long minBalance, Long maxBalance) {
+        return walletImpl.getWalletPage(cursor, size, minBalance, maxBalance);
+    }
+
+    private void run() {
+        List<PendingDeposit> batch = new ArrayList<>();
+        while (!stopped && !Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < maxBatch) {
+                    PendingDeposit next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (stopped) {
+                fail(batch);
+                break;
+            }
+            batch.removeIf(deposit -> !deposit.claim());
+            if (!batch.isEmpty()) {
+                try {
+                    commit(batch);
+                } catch (Throwable e) {
+                    log.error("Group commit of {} deposits failed: {}", batch.size(), e.toString());
+                    batch.forEach(deposit -> deposit.result.completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        }
+        failQueued();
+    }
+
+    private void failQueued() {
+        List<PendingDeposit> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        fail(queued);
+    }
+
+    private void fail(List<PendingDeposit> deposits) {
+        for (PendingDeposit deposit : deposits) {
+            if (deposit.claim()) {
+                deposit.result.completeExceptionally(new RuntimeException("Wallet service is shutting down, please retry."));
+            }
+        }
+    }
+
+    private void commit(List<PendingDeposit> batch) {
+        batchSizes.record(batch.size());
+        // Wallets are updated in account id order, the same order transfers lock them in
+        Map<Integer, Long> totals = new TreeMap<>();
+        batch.forEach(deposit -> totals.merge(deposit.accountId, deposit.amount, Long::sum));
+
+        Map<Integer, WalletBalance> balances;
+        try {
+            balances = batchTransactionTemplate.execute(status -> {
+                List<Integer> accountIds = new ArrayList<>(totals.keySet());
+                int[] counts = walletJdbcRepo.creditAll(accountIds, new ArrayList<>(totals.values()));
+                Set<Integer> credited = new HashSet<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] != 0) {
+                        credited.add(accountIds.get(i));
+                    }
+                }
+
+                List<PendingDeposit> applied = batch.stream()
+                        .filter(deposit -> credited.contains(deposit.accountId))
+                        .toList();
+                Map<Integer, String> emails = accountRepo.findSummariesByIdIn(credited).stream()
+                        .collect(Collectors.toMap(AccountSummary::getId, AccountSummary::getEmail));
+                walletJdbcRepo.insertDeposits(
+                        applied.stream().map(deposit -> deposit.accountId).toList(),
+                        applied.stream().map(deposit -> deposit.amount).toList(),
+                        emails,
+                        "Deposit to wallet"
+                );
+                ledgerJdbcRepo.append(applied.stream()
+                        .map(deposit -> Movement.deposit(deposit.accountId, deposit.amount))
+                        .toList());
+                versionedBalanceCache.invalidateOnCommit(credited);
+                return walletRepo.findBalancesByIdIn(credited).stream()
+                        .collect(Collectors.toMap(WalletBalance::getId, Function.identity()));
+            });
+        } catch (RuntimeException e) {
+            // The whole batch rolled back, so one bad row does not sink the rest: each deposit is retried on its own
+            log.warn("Group commit of {} deposits failed, retrying them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::commitAlone);
+            return;
+        }
+
+        // Walk backwards so each caller sees the balance right after its own deposit
+        Map<Integer, Long> running = new TreeMap<>();
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            PendingDeposit deposit = batch.get(i);
+            WalletBalance wallet = balances.get(deposit.accountId);
+            if (wallet == null) {
+                deposit.result.completeExceptionally(
+                        new RuntimeException("Wallet not found for account ID: " + deposit.accountId));
+                continue;
+            }
+            long balance = running.getOrDefault(deposit.accountId, wallet.getBalance());
+            deposit.result.complete(Wallet.builder()
+                    .id(wallet.getId())
+                    .balance(balance)
+                    .pendingBalance(wallet.getPendingBalance())
+                    .build());
+            running.put(deposit.accountId, balance - deposit.amount);
+        }
+    }
+
+    private void commitAlone(PendingDeposit deposit) {
+        if (stopped) {
+            deposit.result.completeExceptionally(new RuntimeException("Wallet service is shutting down, please retry."));
+            return;
+        }
+        try {
+            deposit.result.complete(walletImpl.deposit(deposit.accountId, deposit.amount));
+        } catch (Throwable e) {
+            deposit.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class PendingDeposit {
+        final Integer accountId;
+        final long amount;
+        final CompletableFuture<Wallet> result = new CompletableFuture<>();
+        // Taken by whichever comes first, the committer about to apply the deposit or the caller giving up on it
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        PendingDeposit(Integer accountId, long amount) {
+            this.accountId = accountId;
+            this.amount = amount;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
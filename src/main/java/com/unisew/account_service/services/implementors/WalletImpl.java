@@ -1,20 +1,43 @@
 package com.unisew.account_service.services.implementors;
 
+import com.unisew.account_service.components.VersionedBalanceCache;
 import com.unisew.account_service.enums.PaymentType;
 import com.unisew.account_service.enums.Status;
 import com.unisew.account_service.models.Transaction;
 import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.projections.AccountSummary;
+import com.unisew.account_service.projections.WalletBalance;
 import com.unisew.account_service.repositories.AccountRepo;
+import com.unisew.account_service.repositories.LedgerJdbcRepo;
+import com.unisew.account_service.repositories.LedgerJdbcRepo.Movement;
+import com.unisew.account_service.repositories.WalletJdbcRepo;
 import com.unisew.account_service.repositories.WalletRepo;
+import com.unisew.account_service.requests.PayoutItem;
+import com.unisew.account_service.requests.PayoutRequest;
+import com.unisew.account_service.responses.PayoutItemResult;
+import com.unisew.account_service.responses.PayoutResponseDTO;
+import com.unisew.account_service.responses.WalletPageDTO;
+import com.unisew.account_service.responses.WalletResponseDTO;
 import com.unisew.account_service.services.TransactionService;
 import com.unisew.account_service.services.WalletService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,20 +46,27 @@ public class WalletImpl implements WalletService {
     private final WalletRepo walletRepository;
     private final AccountRepo accountRepository;
     private final TransactionService transactionService;
+    private final WalletJdbcRepo walletJdbcRepo;
+    private final LedgerJdbcRepo ledgerJdbcRepo;
+    private final VersionedBalanceCache versionedBalanceCache;
 
+    @Value("${wallet.payout.max_items:5000}")
+    private int payoutMaxItems;
+
+    @Value("${wallet.page.max_size:100}")
+    private int maxPageSize;
 
     @Override
-    @Transactional
+    @Transactional(timeoutString = "${wallet.lock_timeout_seconds:5}")
     public Wallet deposit(Integer accountId, long amount) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Deposit amount must be positive.");
         }
-        Wallet wallet = walletRepository.findById(accountId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found for account ID: " + accountId));
-
-        wallet.setBalance(wallet.getBalance() + amount);
-        Wallet updatedWallet = walletRepository.save(wallet);
-
+        if (walletRepository.credit(accountId, amount) == 0) {
+            throw new RuntimeException("Wallet not found for account ID: " + accountId);
+        }
+        ledgerJdbcRepo.append(List.of(Movement.deposit(accountId, amount)));
+        versionedBalanceCache.invalidateOnCommit(accountId);
 
         transactionService.createInternalTransaction(
                 null,
@@ -44,29 +74,51 @@ public class WalletImpl implements WalletService {
                 amount,
                 PaymentType.DEPOSIT,
                 "Deposit to wallet",
-                wallet.getId(),
+                accountId,
                 Status.TXN_COMPLETED
         );
 
-        return updatedWallet;
+        return currentBalance(accountId);
+    }
+
+    // Several deposits to one wallet applied as a single balance write, with one ledger row each
+    @Transactional(timeoutString = "${wallet.lock_timeout_seconds:5}")
+    public Wallet depositAll(Integer accountId, List<Long> amounts) {
+        long total = amounts.stream().mapToLong(Long::longValue).sum();
+        if (walletRepository.credit(accountId, total) == 0) {
+            throw new RuntimeException("Wallet not found for account ID: " + accountId);
+        }
+        ledgerJdbcRepo.append(amounts.stream().map(amount -> Movement.deposit(accountId, amount)).toList());
+        versionedBalanceCache.invalidateOnCommit(accountId);
+
+        for (long amount : amounts) {
+            transactionService.createInternalTransaction(
+                    null,
+                    accountId,
+                    amount,
+                    PaymentType.DEPOSIT,
+                    "Deposit to wallet",
+                    accountId,
+                    Status.TXN_COMPLETED
+            );
+        }
+
+        return currentBalance(accountId);
     }
 
     @Override
-    @Transactional
+    @Transactional(timeoutString = "${wallet.lock_timeout_seconds:5}")
     public Wallet withdraw(Integer accountId, long amount) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Withdraw amount must be positive.");
         }
-        Wallet wallet = walletRepository.findById(accountId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found for account ID: " + accountId));
-
-        if (wallet.getBalance() < amount) {
-            throw new RuntimeException("Insufficient balance.");
+        if (walletRepository.debit(accountId, amount) == 0) {
+            throw new RuntimeException(walletRepository.existsById(accountId)
+                    ? "Insufficient balance."
+                    : "Wallet not found for account ID: " + accountId);
         }
-
-        wallet.setBalance(wallet.getBalance() - amount);
-        Wallet updatedWallet = walletRepository.save(wallet);
-
+        ledgerJdbcRepo.append(List.of(Movement.withdraw(accountId, amount)));
+        versionedBalanceCache.invalidateOnCommit(accountId);
 
         transactionService.createInternalTransaction(
                 accountId,
@@ -74,15 +126,15 @@ public class WalletImpl implements WalletService {
                 amount,
                 PaymentType.WITHDRAW,
                 "Withdraw from wallet",
-                wallet.getId(),
+                accountId,
                 Status.TXN_PENDING
         );
 
-        return updatedWallet;
+        return currentBalance(accountId);
     }
 
     @Override
-    @Transactional
+    @Transactional(timeoutString = "${wallet.lock_timeout_seconds:5}")
     public List<Transaction> transfer(Integer senderAccountId, Integer receiverAccountId, long amount, String note) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Transfer amount must be positive.");
@@ -91,45 +143,185 @@ public class WalletImpl implements WalletService {
             throw new IllegalArgumentException("Cannot transfer to the same account.");
         }
 
-        Wallet senderWallet = walletRepository.findById(senderAccountId)
-                .orElseThrow(() -> new RuntimeException("Sender wallet not found for account ID: " + senderAccountId));
-        Wallet receiverWallet = walletRepository.findById(receiverAccountId)
-                .orElseThrow(() -> new RuntimeException("Receiver wallet not found for account ID: " + receiverAccountId));
-
-        if (senderWallet.getBalance() < amount) {
-            throw new RuntimeException("Insufficient balance for transfer.");
+        // Row locks are always taken in account id order, so crossing transfers cannot deadlock
+        if (senderAccountId < receiverAccountId) {
+            debitSender(senderAccountId, amount);
+            creditReceiver(receiverAccountId, amount);
+        } else {
+            creditReceiver(receiverAccountId, amount);
+            debitSender(senderAccountId, amount);
         }
+        ledgerJdbcRepo.append(List.of(Movement.transfer(senderAccountId, receiverAccountId, amount, PaymentType.TRANSFER)));
+        versionedBalanceCache.invalidateOnCommit(List.of(senderAccountId, receiverAccountId));
 
+        // Both history rows go out in one batch, the ids come back so the caller still sees the saved rows
+        Map<Integer, String> names = accountRepository.findSummariesByIdIn(Set.of(senderAccountId, receiverAccountId)).stream()
+                .collect(Collectors.toMap(AccountSummary::getId, AccountSummary::getEmail));
+        List<Integer> ids = walletJdbcRepo.insertTransfersReturningIds(
+                List.of(senderAccountId),
+                List.of(receiverAccountId),
+                List.of(amount),
+                Collections.singletonList(null),
+                names,
+                PaymentType.TRANSFER,
+                "Transfer",
+                List.of(note)
+        );
 
-        senderWallet.setBalance(senderWallet.getBalance() - amount);
-        receiverWallet.setBalance(receiverWallet.getBalance() + amount);
+        return List.of(
+                transferRow(ids.get(0), senderAccountId, receiverAccountId, amount, names, "Transfer out: " + note, senderAccountId),
+                transferRow(ids.get(1), senderAccountId, receiverAccountId, amount, names, "Transfer in: " + note, receiverAccountId)
+        );
+    }
 
-        walletRepository.save(senderWallet);
-        walletRepository.save(receiverWallet);
+    private Transaction transferRow(Integer id, Integer senderAccountId, Integer receiverAccountId, long amount,
+                                    Map<Integer, String> names, String note, Integer walletId) {
+        return Transaction.builder()
+                .id(id)
+                .senderName(names.get(senderAccountId))
+                .receiverName(names.get(receiverAccountId))
+                .amount(amount)
+                .paymentType(PaymentType.TRANSFER)
+                .note(note)
+                .creationDate(LocalDate.now())
+                .status(Status.TXN_COMPLETED)
+                .wallet(Wallet.builder().id(walletId).build())
+                .build();
+    }
 
+    @Override
+    @Transactional(timeoutString = "${wallet.lock_timeout_seconds:5}")
+    public PayoutResponseDTO payout(PayoutRequest request) {
+        Integer sourceAccountId = request.getSourceAccountId();
+        List<PayoutItem> items = request.getItems() == null ? List.of() : request.getItems();
+        if (sourceAccountId == null) {
+            throw new IllegalArgumentException("Source account is required.");
+        }
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Payout has no items.");
+        }
+        if (items.size() > payoutMaxItems) {
+            throw new IllegalArgumentException("Payout cannot have more than " + payoutMaxItems + " items.");
+        }
+        PaymentType paymentType = request.getPaymentType() != null ? request.getPaymentType() : PaymentType.PLATFORM_DESIGNER;
+        String note = request.getNote() != null ? request.getNote() : "";
 
-        Transaction senderTx = transactionService.createInternalTransaction(
-                senderAccountId,
-                receiverAccountId,
-                amount,
-                PaymentType.TRANSFER,
-                "Transfer out: " + note,
-                senderWallet.getId(),
-                Status.TXN_COMPLETED
-        );
+        List<PayoutItemResult> results = new ArrayList<>(items.size());
+        boolean valid = true;
+        long total = 0;
+        for (PayoutItem item : items) {
+            String result = "PAID";
+            if (item.getAccountId() == null || item.getAmount() <= 0) {
+                result = "INVALID_AMOUNT";
+            } else if (item.getAccountId().equals(sourceAccountId)) {
+                result = "SAME_AS_SOURCE";
+            } else {
+                total = Math.addExact(total, item.getAmount());
+            }
+            valid &= result.equals("PAID");
+            results.add(PayoutItemResult.builder().accountId(item.getAccountId()).amount(item.getAmount()).result(result).build());
+        }
+        if (!valid) {
+            return failedPayout(request, total, results, "Payout has invalid items, nothing was paid");
+        }
 
+        // Wallets are updated in account id order: payees below the source, the source, then payees above it
+        TreeMap<Integer, Long> credits = new TreeMap<>();
+        items.forEach(item -> credits.merge(item.getAccountId(), item.getAmount(), Long::sum));
+        Set<Integer> missing = new HashSet<>();
+        missing.addAll(creditPayees(credits.headMap(sourceAccountId)));
+        if (walletRepository.debit(sourceAccountId, total) == 0) {
+            results.forEach(result -> result.setResult("NOT_APPLIED"));
+            return failedPayout(request, total, results, walletRepository.existsById(sourceAccountId)
+                    ? "Insufficient balance for payout."
+                    : "Source wallet not found for account ID: " + sourceAccountId);
+        }
+        missing.addAll(creditPayees(credits.tailMap(sourceAccountId, false)));
+        if (!missing.isEmpty()) {
+            results.forEach(result -> result.setResult(missing.contains(result.getAccountId()) ? "WALLET_NOT_FOUND" : "NOT_APPLIED"));
+            return failedPayout(request, total, results, "Payout has items without a wallet, nothing was paid");
+        }
 
-        Transaction receiverTx = transactionService.createInternalTransaction(
-                senderAccountId,
-                receiverAccountId,
-                amount,
-                PaymentType.TRANSFER,
-                "Transfer in: " + note,
-                receiverWallet.getId(),
-                Status.TXN_COMPLETED
+        Set<Integer> accountIds = new HashSet<>(credits.keySet());
+        accountIds.add(sourceAccountId);
+        Map<Integer, String> names = accountRepository.findSummariesByIdIn(accountIds).stream()
+                .collect(Collectors.toMap(AccountSummary::getId, AccountSummary::getEmail));
+        walletJdbcRepo.insertPayouts(
+                sourceAccountId,
+                items.stream().map(PayoutItem::getAccountId).toList(),
+                items.stream().map(PayoutItem::getAmount).toList(),
+                names,
+                paymentType,
+                note
         );
+        ledgerJdbcRepo.append(items.stream()
+                .map(item -> Movement.transfer(sourceAccountId, item.getAccountId(), item.getAmount(), paymentType))
+                .toList());
+        versionedBalanceCache.invalidateOnCommit(accountIds);
+
+        return PayoutResponseDTO.builder()
+                .completed(true)
+                .message("Payout completed")
+                .sourceAccountId(sourceAccountId)
+                .total(total)
+                .sourceBalance(currentBalance(sourceAccountId).getBalance())
+                .items(results)
+                .build();
+    }
+
+    private List<Integer> creditPayees(Map<Integer, Long> credits) {
+        if (credits.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> accountIds = new ArrayList<>(credits.keySet());
+        int[] counts = walletJdbcRepo.creditAll(accountIds, new ArrayList<>(credits.values()));
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                missing.add(accountIds.get(i));
+            }
+        }
+        return missing;
+    }
+
+    private PayoutResponseDTO failedPayout(PayoutRequest request, long total, List<PayoutItemResult> results, String message) {
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        return PayoutResponseDTO.builder()
+                .completed(false)
+                .message(message)
+                .sourceAccountId(request.getSourceAccountId())
+                .total(total)
+                .items(results)
+                .build();
+    }
+
+    private void debitSender(Integer senderAccountId, long amount) {
+        if (walletRepository.debit(senderAccountId, amount) == 0) {
+            throw new RuntimeException(walletRepository.existsById(senderAccountId)
+                    ? "Insufficient balance for transfer."
+                    : "Sender wallet not found for account ID: " + senderAccountId);
+        }
+    }
+
+    private void creditReceiver(Integer receiverAccountId, long amount) {
+        if (walletRepository.credit(receiverAccountId, amount) == 0) {
+            throw new RuntimeException("Receiver wallet not found for account ID: " + receiverAccountId);
+        }
+    }
 
-        return List.of(senderTx, receiverTx);
+    // Detached snapshot of the balances just written, read without loading the wallet entity or its account
+    private Wallet currentBalance(Integer accountId) {
+        return walletRepository.findBalanceById(accountId)
+                .map(this::toWallet)
+                .orElseThrow(() -> new RuntimeException("Wallet not found for account ID: " + accountId));
+    }
+
+    private Wallet toWallet(WalletBalance balance) {
+        return Wallet.builder()
+                .id(balance.getId())
+                .balance(balance.getBalance())
+                .pendingBalance(balance.getPendingBalance())
+                .build();
     }
 
     @Override
@@ -137,13 +329,44 @@ public class WalletImpl implements WalletService {
         return walletRepository.findById(accountId);
     }
 
+    @Override
+    public Optional<Wallet> getBalance(Integer accountId) {
+        return versionedBalanceCache.get(accountId, () -> walletRepository.findBalanceById(accountId))
+                .map(this::toWallet);
+    }
+
     @Override
     public List<Wallet> getAllWallets() {
         try {
-            return walletRepository.findAll();
+            return walletRepository.findBalancesBy().stream().map(this::toWallet).toList();
         } catch (Exception e) {
             log.error("Error retrieving all wallets: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to retrieve all wallets: " + e.getMessage(), e);
         }
     }
+
+    @Override
+    public WalletPageDTO getWalletPage(Integer cursor, int size, Long minBalance, Long maxBalance) {
+        if (minBalance != null && maxBalance != null && minBalance > maxBalance) {
+            throw new IllegalArgumentException("minBalance cannot be greater than maxBalance.");
+        }
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<WalletBalance> rows = walletRepository.findPageAfter(
+                cursor != null ? cursor : 0, minBalance, maxBalance, Limit.of(pageSize + 1)
+        );
+        boolean hasNext = rows.size() > pageSize;
+        List<WalletBalance> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        return WalletPageDTO.builder()
+                .wallets(page.stream()
+                        .map(balance -> WalletResponseDTO.builder()
+                                .id(balance.getId())
+                                .balance(balance.getBalance())
+                                .pendingBalance(balance.getPendingBalance())
+                                .build())
+                        .toList())
+                .nextCursor(hasNext ? page.get(page.size() - 1).getId() : null)
+                .build();
+    }
 }
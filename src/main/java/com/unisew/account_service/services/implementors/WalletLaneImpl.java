@@ -0,0 +1,301 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.models.Transaction;
+import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.requests.PayoutRequest;
+import com.unisew.account_service.responses.PayoutResponseDTO;
+import com.unisew.account_service.responses.WalletPageDTO;
+import com.unisew.account_service.services.WalletService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Every wallet is owned by one lane thread, picked by account id, so mutations of a wallet never
+// contend with each other on its row. A lane drains what has queued up and merges consecutive
+// deposits to the same wallet into one balance write.
+@Service
+@Primary
+@ConditionalOnProperty(name = "wallet.execution_mode", havingValue = "lanes")
+@RequiredArgsConstructor
+@Slf4j
+public class WalletLaneImpl implements WalletService {
+
+    private final WalletImpl walletImpl;
+
+    @Value("${wallet.lanes:8}")
+    private int laneCount;
+
+    @Value("${wallet.lane_queue_capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${wallet.lane_max_merge:256}")
+    private int maxMerge;
+
+    @Value("${wallet.queue_wait_timeout_ms:10000}")
+    private long queueWaitTimeoutMs;
+
+    @Value("${wallet.lock_timeout_seconds:5}")
+    private long lockTimeoutSeconds;
+
+    private Lane[] lanes;
+    private volatile boolean stopped;
+
+    @PostConstruct
+    public void start() {
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(new LinkedBlockingQueue<>(queueCapacity));
+            Thread thread = new Thread(lanes[i], "wallet-lane-" + i);
+            thread.setDaemon(true);
+            lanes[i].thread = thread;
+            thread.start();
+        }
+    }
+
+    // Operations still queued at shutdown are failed rather than left for their callers to time out on
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopped = true;
+        for (Lane lane : lanes) {
+            lane.thread.interrupt();
+        }
+        for (Lane lane : lanes) {
+            lane.thread.join(TimeUnit.SECONDS.toMillis(lockTimeoutSeconds));
+            lane.failQueued();
+        }
+    }
+
+    @Override
+    public Wallet deposit(Integer accountId, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive.");
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return walletImpl.deposit(accountId, amount);
+        }
+        return submit(accountId, new Operation<>(accountId, amount, null));
+    }
+
+    @Override
+    public Wallet withdraw(Integer accountId, long amount) {
+        return submit(accountId, new Operation<>(accountId, 0, () -> walletImpl.withdraw(accountId, amount)));
+    }
+
+    // Runs on the sender's lane, the receiver's row is still protected by the ordered row locks of WalletImpl
+    @Override
+    public List<Transaction> transfer(Integer senderAccountId, Integer receiverAccountId, long amount, String note) {
+        return submit(senderAccountId, new Operation<>(senderAccountId, 0,
+                () -> walletImpl.transfer(senderAccountId, receiverAccountId, amount, note)));
+    }
+
+    // Runs on the source's lane like a transfer
+    @Override
+    public PayoutResponseDTO payout(PayoutRequest request) {
+        if (request.getSourceAccountId() == null) {
+            return walletImpl.payout(request);
+        }
+        return submit(request.getSourceAccountId(), new Operation<>(request.getSourceAccountId(), 0,
+                () -> walletImpl.payout(request)));
+    }
+
+    @Override
+    public Optional<Wallet> getWalletByAccountId(Integer accountId) {
+        return walletImpl.getWalletByAccountId(accountId);
+    }
+
+    @Override
+    public Optional<Wallet> getBalance(Integer accountId) {
+        return walletImpl.getBalance(accountId);
+    }
+
+    @Override
+    public List<Wallet> getAllWallets() {
+        return walletImpl.getAllWallets();
+    }
+
+    @Override
+    public WalletPageDTO getWalletPage(Integer cursor, int size, Long minBalance, Long maxBalance) {
+        return walletImpl.getWalletPage(cursor, size, minBalance, maxBalance);
+    }
+
+    private <T> T submit(Integer accountId, Operation<T> operation) {
+        // Callers already in a transaction (idempotent requests) run inline so the change commits with theirs,
+        // IdempotencyImpl gives that transaction the same lock timeout a lane operation has
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return operation.action.get();
+        }
+        Lane lane = lanes[Math.floorMod(accountId.hashCode(), lanes.length)];
+        if (stopped || !lane.queue.offer(operation)) {
+            throw new RuntimeException("Wallet service is busy, please retry.");
+        }
+        try {
+            return await(operation, queueWaitTimeoutMs);
+        } catch (TimeoutException e) {
+            // Still queued: withdraw it so it never runs. Already running: its transaction timeout bounds the wait.
+            if (operation.claim()) {
+                throw new RuntimeException("Wallet service is busy, please retry.");
+            }
+            try {
+                return await(operation, TimeUnit.SECONDS.toMillis(lockTimeoutSeconds) + queueWaitTimeoutMs);
+            } catch (TimeoutException stillRunning) {
+                throw new RuntimeException("Wallet operation did not finish in time, check the balance before retrying.");
+            }
+        }
+    }
+
+    private static <T> T await(Operation<T> operation, long timeoutMs) throws TimeoutException {
+        try {
+            return operation.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the wallet operation.", e);
+        }
+    }
+
+    // A deposit carries its amount and no action, anything else carries the action to run
+    private static final class Operation<T> {
+        final Integer accountId;
+        final long amount;
+        final Supplier<T> action;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        // Taken by whichever comes first, the lane about to run the operation or the caller giving up on it
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        Operation(Integer accountId, long amount, Supplier<T> action) {
+            this.accountId = accountId;
+            this.amount = amount;
+            this.action = action;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        boolean isDeposit() {
+            return action == null;
+        }
+    }
+
+    private final class Lane implements Runnable {
+        final BlockingQueue<Operation<?>> queue;
+        Thread thread;
+
+        Lane(BlockingQueue<Operation<?>> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            List<Operation<?>> batch = new ArrayList<>();
+            // An operation may swallow the interrupt, so the stopped flag is checked as well
+            while (!stopped && !Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                queue.drainTo(batch, maxMerge - 1);
+                if (stopped) {
+                    fail(batch);
+                    break;
+                }
+
+                // Ops of one wallet keep their order, only back-to-back deposits are merged
+                Map<Integer, List<Operation<?>>> byWallet = new LinkedHashMap<>();
+                for (Operation<?> operation : batch) {
+                    byWallet.computeIfAbsent(operation.accountId, id -> new ArrayList<>()).add(operation);
+                }
+                byWallet.values().forEach(this::process);
+                batch.clear();
+            }
+            failQueued();
+        }
+
+        void failQueued() {
+            List<Operation<?>> queued = new ArrayList<>();
+            queue.drainTo(queued);
+            fail(queued);
+        }
+
+        private void fail(List<Operation<?>> operations) {
+            for (Operation<?> operation : operations) {
+                if (operation.claim()) {
+                    operation.result.completeExceptionally(new RuntimeException("Wallet service is shutting down, please retry."));
+                }
+            }
+        }
+
+        private void process(List<Operation<?>> operations) {
+            List<Operation<Wallet>> deposits = new ArrayList<>();
+            for (Operation<?> operation : operations) {
+                if (!operation.claim()) {
+                    continue;
+                }
+                if (operation.isDeposit()) {
+                    @SuppressWarnings("unchecked")
+                    Operation<Wallet> deposit = (Operation<Wallet>) operation;
+                    deposits.add(deposit);
+                    continue;
+                }
+                applyDeposits(deposits);
+                run(operation);
+            }
+            applyDeposits(deposits);
+        }
+
+        private <T> void run(Operation<T> operation) {
+            try {
+                operation.result.complete(operation.action.get());
+            } catch (Throwable e) {
+                operation.result.completeExceptionally(e);
+            }
+        }
+
+        private void applyDeposits(List<Operation<Wallet>> deposits) {
+            if (deposits.isEmpty()) {
+                return;
+            }
+            try {
+                Integer accountId = deposits.get(0).accountId;
+                Wallet wallet = walletImpl.depositAll(accountId, deposits.stream().map(d -> d.amount).toList());
+
+                // Each caller sees the balance as it stood right after its own deposit
+                long balance = wallet.getBalance();
+                for (int i = deposits.size() - 1; i >= 0; i--) {
+                    deposits.get(i).result.complete(Wallet.builder()
+                            .id(wallet.getId())
+                            .balance(balance)
+                            .pendingBalance(wallet.getPendingBalance())
+                            .build());
+                    balance -= deposits.get(i).amount;
+                }
+            } catch (Throwable e) {
+                deposits.forEach(deposit -> deposit.result.completeExceptionally(e));
+            }
+            deposits.clear();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.unisew.account_service.benchmarks;
+
+import com.unisew.account_service.services.implementors.JWTImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuance throughput, run with:
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main JWTBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JWTBenchmark {
+
+    private static final String SECRET_KEY = "c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0";
+    private static final long EXPIRATION_TIME = 86_400_000L;
+
+    private JWTImpl jwtService;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JWTImpl();
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "EXPIRATION_TIME", EXPIRATION_TIME);
+        jwtService.init();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("school@gmail.com", "school", 42);
+    }
+
+    // The previous implementation: key decoded and serializer looked up for every token
+    @Benchmark
+    public String generateTokenPerCallSetup() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("id", 42 + "");
+        claims.put("role", "school");
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject("school@gmail.com")
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,199 @@
+package com.unisew.account_service.benchmarks;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.unisew.account_service.components.EmailIndex;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
+import com.unisew.account_service.models.Account;
+import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.repositories.AccountRepo;
+import com.unisew.account_service.requests.CreateProfileRequest;
+import com.unisew.account_service.requests.LoginRequest;
+import com.unisew.account_service.responses.ResponseObject;
+import com.unisew.account_service.services.GoogleTokenService;
+import com.unisew.account_service.services.ProfileService;
+import com.unisew.account_service.services.implementors.AuthImpl;
+import com.unisew.account_service.services.implementors.JWTImpl;
+import com.unisew.account_service.services.implementors.ProfileLookupImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login latency for a returning user against an in-memory database and a profile service stubbed
+ * with a fixed delay, run with:
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main LoginBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoginBenchmark {
+
+    private static final String SECRET_KEY = "c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0";
+    private static final String EMAIL = "school@gmail.com";
+    private static final String REFRESH_TOKEN = "refresh-1";
+
+    @Param({"0", "20"})
+    public long profileDelayMs;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService remoteCallExecutor;
+    private AccountRepo accountRepo;
+    private JWTImpl jwtService;
+    private ProfileService profileService;
+    private AuthImpl authImpl;
+    private LoginRequest request;
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class})
+    @EntityScan(basePackageClasses = Account.class)
+    @EnableJpaRepositories(basePackageClasses = AccountRepo.class)
+    static class Config {
+    }
+
+    @Setup
+    public void setUp() {
+        // Points the config location at a file that does not exist so application.properties and its
+        // PostgreSQL settings stay out, only the JPA slice login touches is started
+        context = new SpringApplicationBuilder(Config.class).run(
+                "--spring.config.location=optional:classpath:/login-benchmark.properties",
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:login;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=WARN"
+        );
+        accountRepo = context.getBean(AccountRepo.class);
+        Account account = Account.builder()
+                .email(EMAIL)
+                .role(Role.SCHOOL)
+                .registerDate(LocalDate.now())
+                .status(Status.ACCOUNT_ACTIVE)
+                .ggRefreshToken(REFRESH_TOKEN)
+                .build();
+        account.setWallet(Wallet.builder().account(account).build());
+        accountRepo.save(account);
+
+        jwtService = new JWTImpl();
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "EXPIRATION_TIME", 86_400_000L);
+        jwtService.init();
+
+        profileService = new DelayedProfileService(profileDelayMs);
+        remoteCallExecutor = Executors.newFixedThreadPool(8);
+        // Nothing outlives the call, so every login pays the stubbed round trip like the old path does
+        ProfileLookupImpl profileLookup = new ProfileLookupImpl(profileService, remoteCallExecutor,
+                Caffeine.newBuilder().expireAfterWrite(Duration.ZERO).buildAsync(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(profileLookup, "waitTimeoutMs", 5_000L);
+        profileLookup.init();
+
+        authImpl = new AuthImpl(accountRepo, profileService, jwtService,
+                new EmailIndex(context.getBean(JdbcTemplate.class)), profileLookup, remoteCallExecutor, new NoopGoogleTokenService());
+        request = LoginRequest.builder().email(EMAIL).refreshToken(REFRESH_TOKEN).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        remoteCallExecutor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseObject login() {
+        return authImpl.login(request).getBody();
+    }
+
+    // The previous implementation: entity load with the wallet join, a full save whether or not
+    // the refresh token changed, then the profile call after signing, all on the request thread
+    @Benchmark
+    public Map<String, Object> loginSequential() {
+        Account account = accountRepo.findByEmailKey(EmailIndex.normalize(request.getEmail())).orElseThrow();
+        account.setGgRefreshToken(request.getRefreshToken());
+        account = accountRepo.save(account);
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", account.getId());
+        data.put("email", account.getEmail());
+        data.put("role", account.getRole().getValue().toLowerCase());
+        data.put("status", account.getStatus().getValue().toLowerCase());
+        data.put("registerDate", account.getRegisterDate());
+        data.put("token", jwtService.generateToken(account.getEmail(), account.getRole().getValue(), account.getId()));
+        data.put("profile", profileService.getProfile(account.getId()));
+        return data;
+    }
+
+    private record DelayedProfileService(long delayMs) implements ProfileService {
+
+        @Override
+        public Map<String, Object> createProfile(CreateProfileRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, Object> getProfile(int accountId) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of("partner", "partner-" + accountId);
+        }
+
+        @Override
+        public List<Map<String, Object>> createProfiles(List<CreateProfileRequest> requests) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<Integer, Map<String, Object>> getProfiles(List<Integer> accountIds) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class NoopGoogleTokenService implements GoogleTokenService {
+
+        @Override
+        public String getAccessToken(int accountId, String refreshToken) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void invalidate(int accountId) {
+        }
+    }
+}
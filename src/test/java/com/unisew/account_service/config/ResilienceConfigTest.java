@@ -0,0 +1,162 @@
+package com.unisew.account_service.config;
+
+import com.unisew.account_service.components.ProfileServiceFallbackFactory;
+import com.unisew.account_service.requests.CreateProfileRequest;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigurationProperties;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4jBulkheadProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives the profile breaker the way Feign does, a remote call with the fallback factory behind it
+class ResilienceConfigTest {
+
+    private static final int WINDOW = 4;
+
+    private final ResilienceConfig resilienceConfig = new ResilienceConfig();
+    private final ProfileServiceFallbackFactory fallbackFactory = new ProfileServiceFallbackFactory();
+    private final List<Throwable> fallbackCauses = new ArrayList<>();
+    private final AtomicInteger remoteCalls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ThreadPoolBulkheadRegistry bulkheadRegistry = ThreadPoolBulkheadRegistry.ofDefaults();
+    private Resilience4JCircuitBreakerFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        Resilience4JConfigurationProperties properties = new Resilience4JConfigurationProperties();
+        Resilience4jBulkheadProvider bulkheadProvider = new Resilience4jBulkheadProvider(
+                bulkheadRegistry, BulkheadRegistry.ofDefaults(), properties);
+        factory = new Resilience4JCircuitBreakerFactory(
+                CircuitBreakerRegistry.ofDefaults(), TimeLimiterRegistry.ofDefaults(), bulkheadProvider, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void slowProfileServiceDegradesToNoProfileAndOpensTheBreaker() {
+        configure(100, 20);
+
+        for (int i = 0; i < WINDOW; i++) {
+            assertNull(getProfile(i));
+            assertInstanceOf(TimeoutException.class, rootCause(fallbackCauses.get(i)));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker().getState());
+        assertNull(getProfile(99));
+        assertInstanceOf(CallNotPermittedException.class, rootCause(fallbackCauses.get(WINDOW)));
+        assertEquals(WINDOW, remoteCalls.get());
+    }
+
+    @Test
+    void fullBulkheadRejectsStraightIntoTheFallback() throws Exception {
+        int maxConcurrent = 2;
+        configure(5_000, maxConcurrent);
+        ExecutorService callers = Executors.newFixedThreadPool(2 * maxConcurrent);
+        try {
+            // Fill the bulkhead threads and its equally sized queue
+            List<Future<Map<String, Object>>> admitted = new ArrayList<>();
+            for (int i = 0; i < 2 * maxConcurrent; i++) {
+                int accountId = i;
+                admitted.add(callers.submit(() -> getProfile(accountId)));
+            }
+            awaitQueueFull();
+
+            assertNull(getProfile(99));
+            assertInstanceOf(BulkheadFullException.class, rootCause(fallbackCauses.get(0)));
+
+            release.countDown();
+            for (Future<Map<String, Object>> call : admitted) {
+                assertEquals(Map.of("partner", "school"), call.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(2 * maxConcurrent, remoteCalls.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void profileWritesStillFailWhenTheServiceIsDown() {
+        RuntimeException down = new RuntimeException("profile service down");
+        CreateProfileRequest request = CreateProfileRequest.builder().accountId(1).build();
+
+        assertSame(down, assertThrows(RuntimeException.class, () -> fallbackFactory.create(down).createProfile(request)));
+        RuntimeException wrapped = assertThrows(RuntimeException.class,
+                () -> fallbackFactory.create(new TimeoutException("slow")).createProfiles(List.of(request)));
+        assertInstanceOf(TimeoutException.class, wrapped.getCause());
+        assertTrue(fallbackFactory.create(down).getProfiles(List.of(1, 2)).isEmpty());
+    }
+
+    private void configure(long timeoutMs, int maxConcurrent) {
+        resilienceConfig.remoteServiceCircuitBreakers(50, WINDOW, WINDOW, 60, timeoutMs, 3_000, 3_000).customize(factory);
+        resilienceConfig.remoteServiceBulkheads(maxConcurrent, 10, 10).customize(factory.getBulkheadProvider());
+    }
+
+    private Map<String, Object> getProfile(int accountId) {
+        return factory.create(ResilienceConfig.PROFILE_SERVICE).run(() -> {
+            remoteCalls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of("partner", "school");
+        }, cause -> {
+            synchronized (fallbackCauses) {
+                fallbackCauses.add(cause);
+            }
+            return fallbackFactory.create(cause).getProfile(accountId);
+        });
+    }
+
+    private CircuitBreaker breaker() {
+        return factory.getCircuitBreakerRegistry().circuitBreaker(ResilienceConfig.PROFILE_SERVICE);
+    }
+
+    private void awaitQueueFull() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (remoteCalls.get() < 2 || queueDepth() < 2) {
+            assertTrue(System.nanoTime() < deadline, "bulkhead never filled");
+            Thread.sleep(5);
+        }
+    }
+
+    private int queueDepth() {
+        return bulkheadRegistry.bulkhead(ResilienceConfig.PROFILE_SERVICE).getMetrics().getQueueDepth();
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while (e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+}
@@ -0,0 +1,357 @@
+package com.unisew.account_service.services.implementors;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.unisew.account_service.components.EmailIndex;
+import com.unisew.account_service.enums.BanCheck;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
+import com.unisew.account_service.models.Account;
+import com.unisew.account_service.requests.AccountRequestDTO;
+import com.unisew.account_service.requests.BulkStatusItem;
+import com.unisew.account_service.requests.BulkStatusRequest;
+import com.unisew.account_service.requests.CreateAccountRequest;
+import com.unisew.account_service.responses.AccountResponseDTO;
+import com.unisew.account_service.responses.ResponseObject;
+import com.unisew.account_service.services.BanSafetyService;
+import com.unisew.account_service.services.ProfileLookupService;
+import com.unisew.account_service.services.ProfileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Import({AccountImpl.class, EmailIndex.class})
+class AccountImplTest extends WalletDataJpaTest {
+
+    @MockitoBean
+    private ProfileService profileService;
+
+    @MockitoBean
+    private ProfileLookupService profileLookupService;
+
+    @MockitoBean
+    private BanSafetyService banSafetyService;
+
+    @Autowired
+    private AccountImpl accountImpl;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Cache<Integer, Map<String, Object>> internalAccountCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(accountImpl, "maxPageSize", 100);
+        ReflectionTestUtils.setField(accountImpl, "maxBatchLookupSize", 500);
+        internalAccountCache.invalidateAll();
+        when(banSafetyService.check(any(), any())).thenReturn(BanCheck.SAFE);
+        when(profileLookupService.getProfiles(anyCollection())).thenAnswer(invocation -> {
+            Map<Integer, Map<String, Object>> profiles = new HashMap<>();
+            for (Integer id : invocation.<Collection<Integer>>getArgument(0)) {
+                profiles.put(id, Map.of("partner", "partner-" + id));
+            }
+            return profiles;
+        });
+    }
+
+    @Test
+    void accountPagesSeekByIdAndFilterInTheQuery() {
+        createAccount("admin@gmail.com", Role.ADMIN);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Role role = i % 3 == 0 ? Role.GARMENT_FACTORY : Role.SCHOOL;
+            int id = createAccount("user" + i + "@gmail.com", role);
+            if (i % 5 == 0) {
+                accountRepo.updateStatus(id, Status.ACCOUNT_INACTIVE);
+            } else if (role == Role.SCHOOL) {
+                expected.add(id);
+            }
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        Integer cursor = null;
+        int pages = 0;
+        do {
+            Map<String, Object> page = page(cursor, 15, Role.SCHOOL, Status.ACCOUNT_ACTIVE, null, null);
+            for (AccountResponseDTO account : accounts(page)) {
+                assertEquals(Role.SCHOOL, account.getRole());
+                assertEquals("active", account.getStatus());
+                assertEquals("partner-" + account.getId(), account.getPartner());
+                seen.add(account.getId());
+            }
+            cursor = (Integer) page.get("nextCursor");
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, seen);
+        assertEquals(3, pages);
+        verify(profileLookupService, times(pages)).getProfiles(anyCollection());
+    }
+
+    @Test
+    void accountPageFiltersOnRegisterDateAndCapsThePageSize() {
+        LocalDate today = LocalDate.now();
+        createAccount("admin@gmail.com", Role.ADMIN);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            int id = createAccount("school" + i + "@gmail.com", Role.SCHOOL);
+            jdbcTemplate.update("UPDATE \"account\" SET \"register_date\" = ? WHERE id = ?", Date.valueOf(today.minusDays(i)), id);
+            ids.add(id);
+        }
+
+        Map<String, Object> range = page(null, 20, null, null, today.minusDays(9), today.minusDays(5));
+        assertEquals(ids.subList(5, 10), accounts(range).stream().map(AccountResponseDTO::getId).toList());
+        assertNull(range.get("nextCursor"));
+
+        ReflectionTestUtils.setField(accountImpl, "maxPageSize", 10);
+        Map<String, Object> capped = page(null, 1_000, null, null, null, null);
+        assertEquals(ids.subList(0, 10), accounts(capped).stream().map(AccountResponseDTO::getId).toList());
+        assertEquals(ids.get(9), capped.get("nextCursor"));
+
+        Map<String, Object> empty = page(ids.get(29), 10, null, null, null, null);
+        assertTrue(accounts(empty).isEmpty());
+        assertNotNull(empty.get("accounts"));
+    }
+
+    @Test
+    void internalLookupIsCachedUntilTheAccountChangesThroughTheService() {
+        int id = createAccount("school@gmail.com", Role.SCHOOL);
+        assertEquals("active", accountImpl.getAccountById(id).get("status"));
+
+        accountRepo.updateStatus(id, Status.ACCOUNT_SUSPENDED);
+        assertEquals("active", accountImpl.getAccountById(id).get("status"));
+
+        accountImpl.updateAccountStatus(id, Status.ACCOUNT_SUSPENDED);
+        assertEquals("suspended", accountImpl.getAccountById(id).get("status"));
+
+        accountImpl.updateAccount(id, AccountRequestDTO.builder().status("active").build());
+        assertEquals("active", accountImpl.getAccountById(id).get("status"));
+
+        accountImpl.deleteAccount(id);
+        assertEquals("inactive", accountImpl.getAccountById(id).get("status"));
+    }
+
+    @Test
+    void batchLookupLoadsOnlyTheMissingAccounts() {
+        int cached = createAccount("cached@gmail.com", Role.SCHOOL);
+        int missing = createAccount("missing@gmail.com", Role.GARMENT_FACTORY);
+        accountImpl.getAccountById(cached);
+        accountRepo.updateStatus(cached, Status.ACCOUNT_SUSPENDED);
+        accountRepo.updateStatus(missing, Status.ACCOUNT_SUSPENDED);
+
+        Map<Integer, Map<String, Object>> accounts = accountImpl.getAccountsByIds(List.of(cached, missing, missing + 1_000));
+
+        assertEquals(Set.of(cached, missing), accounts.keySet());
+        assertEquals("active", accounts.get(cached).get("status"));
+        assertEquals("suspended", accounts.get(missing).get("status"));
+        assertEquals("missing@gmail.com", accounts.get(missing).get("email"));
+        assertEquals(accounts.get(missing), internalAccountCache.getIfPresent(missing));
+    }
+
+    @Test
+    void banChecksRunOutsideAnyTransaction() {
+        int id = createAccount("school@gmail.com", Role.SCHOOL);
+        AtomicBoolean inTransaction = new AtomicBoolean(true);
+        when(banSafetyService.check(any(), any())).thenAnswer(invocation -> {
+            inTransaction.set(TransactionSynchronizationManager.isActualTransactionActive());
+            return BanCheck.SAFE;
+        });
+
+        ResponseEntity<ResponseObject> response = accountImpl.updateAccount(id,
+                AccountRequestDTO.builder().status("suspended").packageIds(List.of(1)).build());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(inTransaction.get());
+        assertEquals(Status.ACCOUNT_SUSPENDED, accountRepo.findById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void unsafeOrUnverifiableBanLeavesTheAccountUnchanged() {
+        int id = createAccount("factory@gmail.com", Role.GARMENT_FACTORY);
+        AccountRequestDTO ban = AccountRequestDTO.builder().status("suspended").garmentId(id).build();
+
+        when(banSafetyService.check(any(), any())).thenReturn(BanCheck.UNSAFE_ORDER);
+        assertEquals(HttpStatus.BAD_REQUEST, accountImpl.updateAccount(id, ban).getStatusCode());
+
+        when(banSafetyService.check(any(), any())).thenReturn(BanCheck.UNAVAILABLE);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, accountImpl.updateAccount(id, ban).getStatusCode());
+
+        assertEquals(Status.ACCOUNT_ACTIVE, accountRepo.findById(id).orElseThrow().getStatus());
+        verify(banSafetyService, times(2)).check(null, id);
+    }
+
+    @Test
+    void bulkBanAppliesOnlyToAccountsProvenSafe() {
+        int safe = createAccount("safe@gmail.com", Role.SCHOOL);
+        int unchecked = createAccount("unchecked@gmail.com", Role.SCHOOL);
+        int busy = createAccount("busy@gmail.com", Role.GARMENT_FACTORY);
+        when(banSafetyService.checkAll(anyList())).thenReturn(Map.of(
+                safe, BanCheck.SAFE, unchecked, BanCheck.UNKNOWN, busy, BanCheck.UNSAFE_ORDER));
+
+        ResponseEntity<ResponseObject> response = accountImpl.updateAccountStatuses(new BulkStatusRequest(Status.ACCOUNT_SUSPENDED, List.of(
+                BulkStatusItem.builder().accountId(safe).packageIds(List.of(1)).build(),
+                BulkStatusItem.builder().accountId(unchecked).build(),
+                BulkStatusItem.builder().accountId(busy).garmentId(busy).build(),
+                BulkStatusItem.builder().accountId(busy + 1_000).build())));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Map.of(safe, "updated", unchecked, "unknown", busy, "unsafe_order", busy + 1_000, "not_found"),
+                bulkResults(response));
+        assertEquals(Status.ACCOUNT_SUSPENDED, accountRepo.findById(safe).orElseThrow().getStatus());
+        assertEquals(Status.ACCOUNT_ACTIVE, accountRepo.findById(unchecked).orElseThrow().getStatus());
+        assertEquals(Status.ACCOUNT_ACTIVE, accountRepo.findById(busy).orElseThrow().getStatus());
+    }
+
+    @Test
+    void bulkBanRejectsDuplicateOrMissingAccountIds() {
+        int id = createAccount("school@gmail.com", Role.SCHOOL);
+        BulkStatusItem item = BulkStatusItem.builder().accountId(id).garmentId(id).build();
+
+        ResponseEntity<ResponseObject> duplicate = accountImpl.updateAccountStatuses(
+                new BulkStatusRequest(Status.ACCOUNT_SUSPENDED, List.of(item, BulkStatusItem.builder().accountId(id).build())));
+        ResponseEntity<ResponseObject> missingId = accountImpl.updateAccountStatuses(
+                new BulkStatusRequest(Status.ACCOUNT_SUSPENDED, List.of(item, new BulkStatusItem())));
+
+        assertEquals(HttpStatus.BAD_REQUEST, duplicate.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, missingId.getStatusCode());
+        verify(banSafetyService, never()).checkAll(anyList());
+        assertEquals(Status.ACCOUNT_ACTIVE, accountRepo.findById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void banWithNothingToCheckIsRejected() {
+        int id = createAccount("school@gmail.com", Role.SCHOOL);
+        when(banSafetyService.check(any(), any())).thenReturn(BanCheck.UNKNOWN);
+
+        ResponseEntity<ResponseObject> response = accountImpl.updateAccount(id, AccountRequestDTO.builder().status("suspended").build());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Status.ACCOUNT_ACTIVE, accountRepo.findById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void emailIndexAnswersDefinitelyNewOnlyOnceLoaded() {
+        createAccount("Existing@Gmail.com", Role.SCHOOL);
+        EmailIndex index = new EmailIndex(jdbcTemplate);
+        assertTrue(index.mightExist("new@gmail.com"));
+
+        index.load();
+
+        assertTrue(index.mightExist(" existing@gmail.COM "));
+        assertFalse(index.mightExist("new@gmail.com"));
+        index.add("New@gmail.com");
+        assertTrue(index.mightExist("new@gmail.com"));
+    }
+
+    @Test
+    void registeredEmailIsRejectedWithoutCreatingAProfile() {
+        accountImpl.createAccount(new CreateAccountRequest("school@gmail.com", Role.SCHOOL));
+
+        ResponseEntity<ResponseObject> again = accountImpl.createAccount(new CreateAccountRequest("School@Gmail.com ", Role.SCHOOL));
+
+        assertEquals("This email is already registered", again.getBody().getMessage());
+        assertEquals(1, accountRepo.count());
+        verify(profileService, times(1)).createProfile(any());
+    }
+
+    @Test
+    void uniqueIndexRejectsADuplicateTheEmailIndexMissed() {
+        createAccount("school@gmail.com", Role.SCHOOL);
+        Account duplicate = Account.builder()
+                .email(" School@Gmail.com")
+                .role(Role.SCHOOL)
+                .registerDate(LocalDate.now())
+                .status(Status.ACCOUNT_ACTIVE)
+                .build();
+
+        assertThrows(DataIntegrityViolationException.class, () -> accountRepo.saveAndFlush(duplicate));
+        assertEquals(1, accountRepo.count());
+    }
+
+    @Test
+    void accountsStoredWithAnyCaseAreFoundByTheNormalizedEmail() {
+        int id = createAccount("Seeded.Admin@Gmail.com", Role.ADMIN);
+
+        assertEquals(id, accountRepo.findAuthViewByEmailKey(EmailIndex.normalize(" seeded.admin@GMAIL.com")).orElseThrow().getId());
+        assertEquals("Seeded.Admin@Gmail.com", accountImpl.getAccountByEmail("SEEDED.ADMIN@gmail.com").orElseThrow().getEmail());
+        assertEquals(List.of("seeded.admin@gmail.com"), accountRepo.findExistingEmailKeys(List.of("seeded.admin@gmail.com", "new@gmail.com")));
+    }
+
+    @Test
+    void duplicateEmailFailsBeforeTheProfileIsCreated() {
+        createAccount("unindexed@gmail.com", Role.SCHOOL);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> accountImpl.createAccount(new CreateAccountRequest("unindexed@gmail.com", Role.SCHOOL)));
+
+        verify(profileService, never()).createProfile(any());
+        assertEquals(1, accountRepo.count());
+    }
+
+    @Test
+    void batchLookupIgnoresNullIdsAndRejectsOversizedBatches() {
+        int id = createAccount("school@gmail.com", Role.SCHOOL);
+        ReflectionTestUtils.setField(accountImpl, "maxBatchLookupSize", 3);
+
+        assertEquals(Set.of(id), accountImpl.getAccountsByIds(Arrays.asList(id, null, id, null, null)).keySet());
+        assertTrue(accountImpl.getAccountsByIds(List.of()).isEmpty());
+
+        IllegalArgumentException tooMany = assertThrows(IllegalArgumentException.class,
+                () -> accountImpl.getAccountsByIds(List.of(id, id + 1, id + 2, id + 3)));
+        assertEquals("At most 3 account IDs can be looked up at once", tooMany.getMessage());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> page(Integer cursor, int size, Role role, Status status, LocalDate from, LocalDate to) {
+        ResponseEntity<ResponseObject> response = accountImpl.getAccountPage(cursor, size, role, status, from, to);
+        return (Map<String, Object>) response.getBody().getData();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Integer, String> bulkResults(ResponseEntity<ResponseObject> response) {
+        Map<Integer, String> results = new HashMap<>();
+        for (Map<String, Object> result : (List<Map<String, Object>>) response.getBody().getData()) {
+            results.put((Integer) result.get("accountId"), (String) result.get("result"));
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<AccountResponseDTO> accounts(Map<String, Object> page) {
+        return (List<AccountResponseDTO>) page.get("accounts");
+    }
+}
@@ -0,0 +1,132 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.components.EmailIndex;
+import com.unisew.account_service.config.ExecutorConfig;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.repositories.AccountRepo;
+import com.unisew.account_service.requests.CreateAccountRequest;
+import com.unisew.account_service.responses.ResponseObject;
+import com.unisew.account_service.services.ProfileService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "profile.batch_size=100"
+})
+@Import({AccountImportImpl.class, EmailIndex.class, ExecutorConfig.class})
+class AccountImportImplTest extends WalletDataJpaTest {
+
+    private static final int ACCOUNTS = 1_000;
+
+    @MockitoBean
+    private ProfileService profileService;
+
+    @MockitoSpyBean
+    private AccountRepo spiedAccountRepo;
+
+    @Autowired
+    private AccountImportImpl accountImport;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void importBatchesInsertsAndProfileCalls() {
+        List<CreateAccountRequest> requests = IntStream.range(0, ACCOUNTS)
+                .mapToObj(i -> new CreateAccountRequest("User" + i + "@gmail.com", Role.SCHOOL))
+                .toList();
+
+        ResponseEntity<ResponseObject> response = accountImport.importAccounts(requests);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(ACCOUNTS, data(response).get("created"));
+        assertEquals(ACCOUNTS, accountRepo.count());
+        assertEquals(ACCOUNTS, walletRepo.count());
+        assertEquals(2L * ACCOUNTS, statistics.getEntityInsertCount());
+        // One prepared INSERT per table per JDBC batch plus the pooled sequence calls,
+        // against two per account when every row goes out on its own
+        assertTrue(statistics.getPrepareStatementCount() < ACCOUNTS / 5,
+                statistics.getPrepareStatementCount() + " statements");
+        verify(profileService, times(ACCOUNTS / 100)).createProfiles(anyList());
+    }
+
+    @Test
+    void importSkipsRegisteredDuplicatedAndInvalidRows() {
+        createAccount("registered@gmail.com", Role.SCHOOL);
+        List<CreateAccountRequest> requests = new ArrayList<>(List.of(
+                new CreateAccountRequest("Registered@gmail.com", Role.SCHOOL),
+                new CreateAccountRequest("new@gmail.com", Role.GARMENT_FACTORY),
+                new CreateAccountRequest("NEW@gmail.com", Role.SCHOOL),
+                new CreateAccountRequest("admin@gmail.com", Role.ADMIN),
+                new CreateAccountRequest(null, Role.SCHOOL)));
+
+        Map<String, Object> data = data(accountImport.importAccounts(requests));
+
+        assertEquals(1, data.get("created"));
+        assertEquals(List.of("registered@gmail.com"), List.copyOf((Collection<?>) data.get("alreadyRegistered")));
+        assertEquals(List.of("new@gmail.com"), data.get("duplicated"));
+        assertEquals(2, ((Collection<?>) data.get("invalid")).size());
+        assertEquals(2, accountRepo.count());
+    }
+
+    @Test
+    void emailsRegisteredByARacingImportAreReportedAsDuplicates() {
+        // Another import registers racer@gmail.com right after this one looked it up
+        doAnswer(invocation -> {
+            createAccount("racer@gmail.com", Role.SCHOOL);
+            return List.of();
+        }).doReturn(List.of("racer@gmail.com")).when(spiedAccountRepo).findExistingEmailKeys(anyCollection());
+        List<CreateAccountRequest> requests = List.of(
+                new CreateAccountRequest("first@gmail.com", Role.SCHOOL),
+                new CreateAccountRequest("Racer@gmail.com", Role.SCHOOL),
+                new CreateAccountRequest("second@gmail.com", Role.DESIGNER));
+
+        ResponseEntity<ResponseObject> response = accountImport.importAccounts(requests);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(2, data(response).get("created"));
+        assertEquals(List.of("racer@gmail.com"), data(response).get("duplicated"));
+        assertEquals(3, accountRepo.count());
+        assertEquals(3, walletRepo.count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> data(ResponseEntity<ResponseObject> response) {
+        return (Map<String, Object>) response.getBody().getData();
+    }
+}
@@ -0,0 +1,125 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.components.EmailIndex;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
+import com.unisew.account_service.projections.AccountAuthView;
+import com.unisew.account_service.repositories.AccountRepo;
+import com.unisew.account_service.requests.LoginRequest;
+import com.unisew.account_service.responses.ResponseObject;
+import com.unisew.account_service.services.GoogleTokenService;
+import com.unisew.account_service.services.JWTService;
+import com.unisew.account_service.services.ProfileLookupService;
+import com.unisew.account_service.services.ProfileService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthImplTest {
+
+    private final AccountRepo accountRepo = mock(AccountRepo.class);
+    private final EmailIndex emailIndex = mock(EmailIndex.class);
+    private final GoogleTokenService googleTokenService = mock(GoogleTokenService.class);
+    // The profile fetch and the signing each wait for the other to start, which only
+    // succeeds when they run at the same time
+    private final CountDownLatch bothStarted = new CountDownLatch(2);
+    private final List<Boolean> overlapped = new CopyOnWriteArrayList<>();
+    private ExecutorService executor;
+    private AuthImpl authImpl;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        ProfileLookupService profileLookupService = mock(ProfileLookupService.class);
+        when(profileLookupService.getProfile(anyInt())).thenAnswer(invocation -> {
+            awaitOther();
+            return Map.of("partner", "school");
+        });
+        JWTService jwtService = mock(JWTService.class);
+        when(jwtService.generateToken(anyString(), anyString(), anyInt())).thenAnswer(invocation -> {
+            awaitOther();
+            return "token";
+        });
+        when(emailIndex.mightExist(any())).thenReturn(true);
+        when(accountRepo.findAuthViewByEmailKey("school@gmail.com")).thenReturn(Optional.of(view("refresh-1")));
+
+        authImpl = new AuthImpl(accountRepo, mock(ProfileService.class), jwtService, emailIndex, profileLookupService, executor, googleTokenService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void loginSkipsWriteWhenRefreshTokenIsUnchanged() {
+        ResponseEntity<ResponseObject> response = authImpl.login(request("refresh-1"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(accountRepo, never()).updateRefreshToken(any(), any());
+        verify(accountRepo, never()).save(any());
+        verify(accountRepo, never()).findByEmailKey(any());
+        verify(googleTokenService, never()).invalidate(anyInt());
+    }
+
+    @Test
+    void loginWritesOnlyTheChangedRefreshToken() {
+        authImpl.login(request("refresh-2"));
+
+        verify(accountRepo).updateRefreshToken(7, "refresh-2");
+        verify(googleTokenService).invalidate(7);
+        verify(accountRepo, never()).save(any());
+    }
+
+    @Test
+    void loginOverlapsProfileFetchWithTokenSigning() {
+        ResponseEntity<ResponseObject> response = authImpl.login(request("refresh-1"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) response.getBody().getData();
+        assertEquals("token", data.get("token"));
+        assertEquals(Map.of("partner", "school"), data.get("profile"));
+        assertEquals(List.of(true, true), overlapped);
+    }
+
+    private void awaitOther() throws InterruptedException {
+        bothStarted.countDown();
+        overlapped.add(bothStarted.await(1, TimeUnit.SECONDS));
+    }
+
+    private static LoginRequest request(String refreshToken) {
+        return LoginRequest.builder().email("School@gmail.com").refreshToken(refreshToken).build();
+    }
+
+    private static AccountAuthView view(String refreshToken) {
+        return new AccountAuthView() {
+            public Integer getId() { return 7; }
+            public String getEmail() { return "school@gmail.com"; }
+            public Role getRole() { return Role.SCHOOL; }
+            public LocalDate getRegisterDate() { return LocalDate.of(2025, 1, 1); }
+            public Status getStatus() { return Status.ACCOUNT_ACTIVE; }
+            public String getGgRefreshToken() { return refreshToken; }
+        };
+    }
+}
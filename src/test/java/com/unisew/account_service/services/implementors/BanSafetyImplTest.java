@@ -0,0 +1,135 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.enums.BanCheck;
+import com.unisew.account_service.requests.BulkStatusItem;
+import com.unisew.account_service.services.DesignService;
+import com.unisew.account_service.services.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BanSafetyImplTest {
+
+    private final DesignService designService = mock(DesignService.class);
+    private final OrderService orderService = mock(OrderService.class);
+    private ExecutorService executor;
+    private BanSafetyImpl banSafety;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        banSafety = new BanSafetyImpl(designService, orderService, executor);
+        ReflectionTestUtils.setField(banSafety, "timeoutMs", 2_000L);
+        ReflectionTestUtils.setField(banSafety, "bulkConcurrency", 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void designAndOrderChecksRunConcurrently() {
+        // Each check waits for the other to start, which only succeeds if both are in flight together
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(designService.isSafeToBan(anyList())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            return bothStarted.await(1, TimeUnit.SECONDS);
+        });
+        when(orderService.isSafeToBan(anyInt())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            return bothStarted.await(1, TimeUnit.SECONDS);
+        });
+
+        assertEquals(BanCheck.SAFE, banSafety.check(List.of(1, 2), 3));
+    }
+
+    @Test
+    void unsafeAnswerWinsOverAFailedCheck() {
+        when(designService.isSafeToBan(anyList())).thenReturn(false);
+        when(orderService.isSafeToBan(anyInt())).thenThrow(new RuntimeException("order service down"));
+        assertEquals(BanCheck.UNSAFE_DESIGN, banSafety.check(List.of(1), 3));
+
+        when(designService.isSafeToBan(anyList())).thenReturn(true);
+        assertEquals(BanCheck.UNAVAILABLE, banSafety.check(List.of(1), 3));
+
+        doReturn(false).when(orderService).isSafeToBan(anyInt());
+        assertEquals(BanCheck.UNSAFE_ORDER, banSafety.check(List.of(1), 3));
+    }
+
+    @Test
+    void slowDependencyTimesOutAsUnavailable() {
+        ReflectionTestUtils.setField(banSafety, "timeoutMs", 100L);
+        CountDownLatch never = new CountDownLatch(1);
+        when(designService.isSafeToBan(anyList())).thenReturn(true);
+        when(orderService.isSafeToBan(anyInt())).thenAnswer(invocation -> never.await(5, TimeUnit.SECONDS));
+
+        assertEquals(BanCheck.UNAVAILABLE, banSafety.check(List.of(1), 3));
+        never.countDown();
+    }
+
+    @Test
+    void nothingToCheckIsNotSafe() {
+        assertEquals(BanCheck.UNKNOWN, banSafety.check(null, null));
+
+        Map<Integer, BanCheck> results = banSafety.checkAll(List.of(
+                BulkStatusItem.builder().accountId(1).build(),
+                BulkStatusItem.builder().accountId(2).packageIds(List.of()).build()));
+
+        assertEquals(BanCheck.UNKNOWN, results.get(1));
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void duplicateAccountsInABulkCheckAreRejected() {
+        when(orderService.isSafeToBan(anyInt())).thenReturn(true);
+        List<BulkStatusItem> items = List.of(
+                BulkStatusItem.builder().accountId(1).garmentId(1).build(),
+                BulkStatusItem.builder().accountId(1).build());
+
+        assertThrows(IllegalArgumentException.class, () -> banSafety.checkAll(items));
+    }
+
+    @Test
+    void bulkChecksStayWithinTheConcurrencyLimit() {
+        ReflectionTestUtils.setField(banSafety, "bulkConcurrency", 3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(orderService.isSafeToBan(anyInt())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            inFlight.decrementAndGet();
+            return (int) invocation.getArgument(0) % 2 == 0;
+        });
+        List<BulkStatusItem> items = IntStream.range(0, 40)
+                .mapToObj(i -> BulkStatusItem.builder().accountId(i).garmentId(i).build())
+                .toList();
+
+        Map<Integer, BanCheck> results = banSafety.checkAll(items);
+
+        assertEquals(40, results.size());
+        assertEquals(BanCheck.SAFE, results.get(10));
+        assertEquals(BanCheck.UNSAFE_ORDER, results.get(11));
+        assertTrue(peak.get() <= 3, "peak " + peak.get());
+    }
+}
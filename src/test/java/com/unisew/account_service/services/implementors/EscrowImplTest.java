@@ -0,0 +1,159 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.components.VersionedBalanceCache;
+import com.unisew.account_service.enums.HoldStatus;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.projections.WalletBalance;
+import com.unisew.account_service.repositories.LedgerJdbcRepo;
+import com.unisew.account_service.repositories.WalletJdbcRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Import({EscrowImpl.class, WalletJdbcRepo.class, LedgerJdbcRepo.class, VersionedBalanceCache.class})
+class EscrowImplTest extends WalletDataJpaTest {
+
+    private static final int THREADS = 8;
+    private static final int SETTLE_BATCH_SIZE = 500;
+
+    @Autowired
+    private EscrowImpl escrowImpl;
+
+    private int schoolId;
+    private int factoryId;
+
+    @BeforeEach
+    void setUp() {
+        schoolId = createAccount("school@gmail.com", Role.SCHOOL);
+        factoryId = createAccount("factory@gmail.com", Role.GARMENT_FACTORY);
+        ReflectionTestUtils.setField(escrowImpl, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(escrowImpl, "settleBatchSize", SETTLE_BATCH_SIZE);
+    }
+
+    @Test
+    void holdMovesFundsIntoPendingBalance() {
+        walletRepo.credit(schoolId, 1_000);
+
+        escrowImpl.hold(schoolId, factoryId, 300, 42, "order 42");
+
+        assertBalances(schoolId, 700, 300);
+        assertEquals(0, transactionRepo.count());
+    }
+
+    @Test
+    void concurrentHoldsNeverOverdraw() throws Exception {
+        int funded = 200;
+        walletRepo.credit(schoolId, funded);
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS, 50, (thread, n) -> {
+            try {
+                escrowImpl.hold(schoolId, factoryId, 1, null, "order");
+            } catch (RuntimeException e) {
+                assertEquals("Insufficient balance for hold.", e.getMessage());
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertBalances(schoolId, 0, funded);
+        assertEquals(THREADS * 50 - funded, rejected.get());
+        assertEquals(funded, walletHoldRepo.count());
+    }
+
+    @Test
+    void settleCapturesHoldsInBatches() {
+        int holds = 2_000;
+        walletRepo.credit(schoolId, 1_000_000);
+        for (int i = 0; i < holds; i++) {
+            escrowImpl.capture(escrowImpl.hold(schoolId, factoryId, 10, i, "order " + i).getId());
+        }
+
+        int settled = escrowImpl.settle();
+
+        assertEquals(holds, settled);
+        assertBalances(schoolId, 1_000_000 - holds * 10L, 0);
+        assertBalances(factoryId, holds * 10L, 0);
+        assertEquals(holds * 2L, transactionRepo.count());
+        assertEquals(holds, walletHoldRepo.findAll().stream().filter(h -> h.getStatus() == HoldStatus.CAPTURED).count());
+        assertEquals(0, escrowImpl.settle());
+    }
+
+    @Test
+    void releasedAndExpiredHoldsReturnFunds() {
+        walletRepo.credit(schoolId, 1_000);
+        Integer released = escrowImpl.hold(schoolId, factoryId, 100, null, "cancelled order").getId();
+        ReflectionTestUtils.setField(escrowImpl, "ttlMinutes", -1L);
+        Integer expired = escrowImpl.hold(schoolId, factoryId, 200, null, "abandoned order").getId();
+
+        escrowImpl.release(released);
+        RuntimeException late = assertThrows(RuntimeException.class, () -> escrowImpl.capture(expired));
+        assertEquals("Hold " + expired + " has expired and cannot be captured.", late.getMessage());
+
+        assertEquals(2, escrowImpl.settle());
+        assertBalances(schoolId, 1_000, 0);
+        assertBalances(factoryId, 0, 0);
+        assertEquals(HoldStatus.RELEASED, walletHoldRepo.findById(released).orElseThrow().getStatus());
+        assertEquals(HoldStatus.EXPIRED, walletHoldRepo.findById(expired).orElseThrow().getStatus());
+        assertEquals(0, transactionRepo.count());
+    }
+
+    @Test
+    void holdForMissingPayeeLeavesBalanceUntouched() {
+        walletRepo.credit(schoolId, 1_000);
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> escrowImpl.hold(schoolId, factoryId + 1_000, 300, null, "order"));
+
+        assertEquals("Payee wallet not found for account ID: " + (factoryId + 1_000), error.getMessage());
+        assertBalances(schoolId, 1_000, 0);
+        assertEquals(0, walletHoldRepo.count());
+    }
+
+    @Test
+    void otherIntegrityViolationsAreNotReportedAsAMissingPayee() {
+        walletRepo.credit(schoolId, 1_000);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> escrowImpl.hold(schoolId, factoryId, 300, null, "x".repeat(300)));
+
+        assertBalances(schoolId, 1_000, 0);
+        assertEquals(0, walletHoldRepo.count());
+    }
+
+    @Test
+    void retriedCaptureAndReleaseReturnThePriorOutcome() {
+        walletRepo.credit(schoolId, 1_000);
+        Integer captured = escrowImpl.hold(schoolId, factoryId, 100, null, "order").getId();
+        Integer released = escrowImpl.hold(schoolId, factoryId, 200, null, "cancelled order").getId();
+
+        assertEquals(HoldStatus.CAPTURING, escrowImpl.capture(captured));
+        assertEquals(HoldStatus.CAPTURING, escrowImpl.capture(captured));
+        assertEquals(HoldStatus.RELEASING, escrowImpl.release(released));
+        assertEquals(HoldStatus.RELEASING, escrowImpl.release(released));
+        assertEquals(2, escrowImpl.settle());
+
+        assertEquals(HoldStatus.CAPTURED, escrowImpl.capture(captured));
+        assertEquals(HoldStatus.RELEASED, escrowImpl.release(released));
+        RuntimeException conflicting = assertThrows(RuntimeException.class, () -> escrowImpl.release(captured));
+        assertEquals("Hold " + captured + " is captured and cannot be released.", conflicting.getMessage());
+        assertThrows(RuntimeException.class, () -> escrowImpl.capture(released));
+        assertEquals(0, escrowImpl.settle());
+        assertBalances(schoolId, 900, 0);
+        assertBalances(factoryId, 100, 0);
+    }
+
+    private void assertBalances(int accountId, long balance, long pendingBalance) {
+        WalletBalance wallet = walletRepo.findBalanceById(accountId).orElseThrow();
+        assertEquals(balance, wallet.getBalance());
+        assertEquals(pendingBalance, wallet.getPendingBalance());
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.unisew.account_service.services.implementors;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.sun.net.httpserver.HttpServer;
+import com.unisew.account_service.config.CacheConfig;
+import com.unisew.account_service.responses.GoogleAccessToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GoogleTokenImplTest {
+
+    private static final long MARGIN_SECONDS = 60;
+
+    private final AtomicInteger exchanges = new AtomicInteger();
+    private volatile long expiresIn = 3599;
+    private HttpServer server;
+    private ExecutorService remoteCallExecutor;
+    private GoogleTokenImpl googleTokenImpl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/token", exchange -> {
+            String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            int n = exchanges.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String refreshToken = form.replaceAll(".*refresh_token=([^&]*).*", "$1");
+            byte[] body = ("{\"access_token\":\"access-" + refreshToken + "-" + n + "\",\"expires_in\":" + expiresIn
+                    + ",\"token_type\":\"Bearer\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        remoteCallExecutor = Executors.newFixedThreadPool(4);
+        AsyncCache<Integer, GoogleAccessToken> cache = new CacheConfig()
+                .googleAccessTokenCache(new SimpleMeterRegistry(), remoteCallExecutor, 100, MARGIN_SECONDS);
+        googleTokenImpl = newGoogleTokenImpl(cache);
+    }
+
+    private GoogleTokenImpl newGoogleTokenImpl(AsyncCache<Integer, GoogleAccessToken> cache) {
+        GoogleTokenImpl googleTokenImpl = new GoogleTokenImpl(new RestTemplate(), cache);
+        ReflectionTestUtils.setField(googleTokenImpl, "clientId", "client");
+        ReflectionTestUtils.setField(googleTokenImpl, "clientSecret", "secret");
+        ReflectionTestUtils.setField(googleTokenImpl, "tokenUri",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/token");
+        return googleTokenImpl;
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        remoteCallExecutor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneExchange() throws Exception {
+        int callers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return googleTokenImpl.getAccessToken(7, "refresh-1");
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("access-refresh-1-1", result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, exchanges.get());
+
+        assertEquals("access-refresh-1-1", googleTokenImpl.getAccessToken(7, "refresh-1"));
+        assertEquals(1, exchanges.get());
+    }
+
+    @Test
+    void tokenWithinSafetyMarginIsNotReused() {
+        expiresIn = MARGIN_SECONDS;
+
+        assertEquals("access-refresh-1-1", googleTokenImpl.getAccessToken(7, "refresh-1"));
+        assertEquals("access-refresh-1-2", googleTokenImpl.getAccessToken(7, "refresh-1"));
+    }
+
+    @Test
+    void invalidateAndNewRefreshTokenForceAnExchange() {
+        googleTokenImpl.getAccessToken(7, "refresh-1");
+
+        googleTokenImpl.invalidate(7);
+        assertEquals("access-refresh-1-2", googleTokenImpl.getAccessToken(7, "refresh-1"));
+
+        assertEquals("access-refresh-2-3", googleTokenImpl.getAccessToken(7, "refresh-2"));
+        assertEquals(3, exchanges.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tokenKeptStaleByOtherCallersIsExchangedWithoutTheCache() {
+        AsyncCache<Integer, GoogleAccessToken> cache = mock(AsyncCache.class, RETURNS_DEEP_STUBS);
+        GoogleAccessToken stale = GoogleAccessToken.builder().accessToken("stale").refreshToken("refresh-1").expiresIn(3599).build();
+        when(cache.get(eq(7), any(BiFunction.class))).thenReturn(CompletableFuture.completedFuture(stale));
+
+        assertEquals("access-refresh-2-1", newGoogleTokenImpl(cache).getAccessToken(7, "refresh-2"));
+        verify(cache, times(2)).get(eq(7), any(BiFunction.class));
+        assertEquals(1, exchanges.get());
+    }
+}
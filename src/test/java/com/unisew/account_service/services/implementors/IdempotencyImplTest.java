@@ -0,0 +1,162 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.components.VersionedBalanceCache;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.models.IdempotencyKey;
+import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.repositories.LedgerJdbcRepo;
+import com.unisew.account_service.repositories.WalletJdbcRepo;
+import com.unisew.account_service.requests.WalletRequestDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Import({IdempotencyImpl.class, WalletImpl.class, TransactionImpl.class, WalletJdbcRepo.class, LedgerJdbcRepo.class, VersionedBalanceCache.class})
+class IdempotencyImplTest extends WalletDataJpaTest {
+
+    @Autowired
+    private IdempotencyImpl idempotencyImpl;
+
+    @Autowired
+    private WalletImpl walletImpl;
+
+    private int accountId;
+
+    @BeforeEach
+    void setUp() {
+        accountId = createAccount("school@gmail.com", Role.SCHOOL);
+    }
+
+    @Test
+    void concurrentRetriesWithOneKeyApplyOnce() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+
+        runConcurrently(8, 1, (thread, n) ->
+                assertEquals(100L, ((Number) balanceOf(deposit("retry-1", 100, executions))).longValue()));
+
+        assertEquals(1, executions.get());
+        assertEquals(100, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+        assertEquals(1, transactionRepo.count());
+    }
+
+    @Test
+    void replayAfterEvictionIsServedFromTheStoredKey() {
+        AtomicInteger executions = new AtomicInteger();
+        deposit("retry-2", 100, executions);
+        idempotencyCache.invalidateAll();
+
+        Object replayed = deposit("retry-2", 100, executions);
+
+        assertEquals(1, executions.get());
+        assertEquals(100, ((Number) balanceOf(replayed)).longValue());
+        assertEquals(100, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() {
+        AtomicInteger executions = new AtomicInteger();
+        deposit("retry-3", 100, executions);
+
+        assertThrows(IllegalArgumentException.class, () -> deposit("retry-3", 200, executions));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failedOperationDoesNotRecordTheKey() {
+        WalletRequestDTO request = WalletRequestDTO.builder().senderAccountId(accountId).amount(100).build();
+        assertThrows(RuntimeException.class, () -> idempotencyImpl.execute("retry-4", "withdraw", request,
+                () -> walletImpl.withdraw(accountId, 100)));
+        walletRepo.credit(accountId, 100);
+
+        idempotencyImpl.execute("retry-4", "withdraw", request, () -> walletImpl.withdraw(accountId, 100));
+
+        assertEquals(0, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+        assertEquals(1, idempotencyKeyRepo.count());
+    }
+
+    @Test
+    void sweeperPurgesExpiredKeysInBatches() {
+        ReflectionTestUtils.setField(idempotencyImpl, "retentionHours", 24L);
+        ReflectionTestUtils.setField(idempotencyImpl, "sweepBatchSize", 100);
+        LocalDateTime expired = LocalDateTime.now().minusDays(2);
+        for (int i = 0; i < 250; i++) {
+            idempotencyKeyRepo.save(new IdempotencyKey("old-" + i, "deposit:x", "{}", expired));
+        }
+        deposit("fresh", 100, new AtomicInteger());
+
+        assertEquals(250, idempotencyImpl.purgeExpired());
+        assertEquals(List.of("anonymous:fresh"), idempotencyKeyRepo.findAll().stream().map(IdempotencyKey::getKey).toList());
+    }
+
+    @Test
+    void keysAreScopedPerCaller() {
+        AtomicInteger executions = new AtomicInteger();
+        try {
+            asCaller("1");
+            deposit("shared", 100, executions);
+            asCaller("2");
+            deposit("shared", 200, executions);
+            assertEquals(300, ((Number) balanceOf(deposit("shared", 200, executions))).longValue());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertEquals(2, executions.get());
+        assertEquals(300, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+        assertEquals(List.of("1:shared", "2:shared"), idempotencyKeyRepo.findAll().stream().map(IdempotencyKey::getKey).sorted().toList());
+    }
+
+    @Test
+    void keyedRequestRunsUnderTheWalletLockTimeout() {
+        ReflectionTestUtils.setField(idempotencyImpl, "lockTimeoutSeconds", 1);
+        idempotencyImpl.init();
+        WalletRequestDTO request = WalletRequestDTO.builder().senderAccountId(accountId).amount(100).build();
+        try {
+            assertThrows(TransactionTimedOutException.class, () -> idempotencyImpl.execute("slow", "deposit", request, () -> {
+                try {
+                    Thread.sleep(1_100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return walletImpl.deposit(accountId, 100);
+            }));
+        } finally {
+            ReflectionTestUtils.setField(idempotencyImpl, "lockTimeoutSeconds", 5);
+            idempotencyImpl.init();
+        }
+
+        assertEquals(0, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+        assertEquals(0, idempotencyKeyRepo.count());
+    }
+
+    private static void asCaller(String accountId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(accountId, null, List.of()));
+    }
+
+    private Object deposit(String key, long amount, AtomicInteger executions) {
+        WalletRequestDTO request = WalletRequestDTO.builder().senderAccountId(accountId).amount(amount).build();
+        return idempotencyImpl.execute(key, "deposit", request, () -> {
+            executions.incrementAndGet();
+            Wallet wallet = walletImpl.deposit(accountId, amount);
+            return Map.of("id", wallet.getId(), "balance", wallet.getBalance());
+        });
+    }
+
+    private static Object balanceOf(Object response) {
+        return ((Map<?, ?>) response).get("balance");
+    }
+}
@@ -0,0 +1,170 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.components.VersionedBalanceCache;
+import com.unisew.account_service.enums.EntryDirection;
+import com.unisew.account_service.enums.PaymentType;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.models.LedgerEntry;
+import com.unisew.account_service.projections.LedgerTotals;
+import com.unisew.account_service.projections.WalletBalance;
+import com.unisew.account_service.repositories.LedgerJdbcRepo;
+import com.unisew.account_service.repositories.WalletJdbcRepo;
+import com.unisew.account_service.requests.PayoutItem;
+import com.unisew.account_service.requests.PayoutRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import({LedgerImpl.class, WalletImpl.class, EscrowImpl.class, TransactionImpl.class, WalletJdbcRepo.class, LedgerJdbcRepo.class, VersionedBalanceCache.class})
+class LedgerImplTest extends WalletDataJpaTest {
+
+    @Autowired
+    private LedgerImpl ledgerImpl;
+
+    @Autowired
+    private WalletImpl walletImpl;
+
+    @Autowired
+    private EscrowImpl escrowImpl;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int schoolId;
+    private int factoryId;
+    private int designerId;
+
+    @BeforeEach
+    void setUp() {
+        schoolId = createAccount("school@gmail.com", Role.SCHOOL);
+        factoryId = createAccount("factory@gmail.com", Role.GARMENT_FACTORY);
+        designerId = createAccount("designer@gmail.com", Role.DESIGNER);
+        ReflectionTestUtils.setField(ledgerImpl, "lagSeconds", 0L);
+    }
+
+    @Test
+    void everyMovementPostsOneDebitAndOneCreditMatchingTheWallets() {
+        walletImpl.deposit(schoolId, 10_000);
+        walletImpl.withdraw(schoolId, 500);
+        walletImpl.transfer(schoolId, factoryId, 1_200, "fabric");
+        walletImpl.transfer(factoryId, schoolId, 200, "refund");
+        walletImpl.payout(PayoutRequest.builder()
+                .sourceAccountId(schoolId)
+                .paymentType(PaymentType.PLATFORM_DESIGNER)
+                .note("monthly")
+                .items(List.of(new PayoutItem(designerId, 300), new PayoutItem(factoryId, 400)))
+                .build());
+        escrowImpl.capture(escrowImpl.hold(schoolId, factoryId, 1_000, 7, "order 7").getId());
+        escrowImpl.release(escrowImpl.hold(schoolId, factoryId, 250, 8, "order 8").getId());
+        escrowImpl.hold(schoolId, factoryId, 50, 9, "order 9");
+        escrowImpl.settle();
+
+        Map<String, List<LedgerEntry>> movements = ledgerEntryRepo.findAll().stream()
+                .collect(Collectors.groupingBy(LedgerEntry::getMovementId));
+        assertEquals(11, movements.size());
+        for (List<LedgerEntry> entries : movements.values()) {
+            assertEquals(2, entries.size());
+            assertEquals(1, entries.stream().filter(e -> e.getDirection() == EntryDirection.DEBIT).count());
+            assertEquals(entries.get(0).getAmount(), entries.get(1).getAmount());
+        }
+
+        Map<Integer, LedgerTotals> totals = ledgerEntryRepo.sumByWalletBetween(0, Long.MAX_VALUE).stream()
+                .collect(Collectors.toMap(LedgerTotals::getWalletId, t -> t));
+        for (int accountId : List.of(schoolId, factoryId, designerId)) {
+            WalletBalance wallet = walletRepo.findBalanceById(accountId).orElseThrow();
+            assertEquals(wallet.getBalance(), totals.get(accountId).getBalance());
+            assertEquals(wallet.getPendingBalance(), totals.get(accountId).getPendingBalance());
+        }
+    }
+
+    @Test
+    void balanceAsOfCombinesCheckpointAndTail() throws Exception {
+        walletImpl.deposit(schoolId, 100);
+        walletImpl.transfer(schoolId, factoryId, 30, "first");
+        LocalDateTime afterFirst = pause();
+        assertEquals(2, ledgerImpl.checkpoint());
+
+        walletImpl.deposit(schoolId, 1_000);
+        LocalDateTime afterSecond = pause();
+        walletImpl.transfer(factoryId, schoolId, 10, "second");
+        assertEquals(2, ledgerImpl.checkpoint());
+        walletImpl.deposit(schoolId, 5);
+        LocalDateTime afterThird = pause();
+
+        assertEquals(0, ledgerImpl.getBalanceAsOf(schoolId, LocalDateTime.now().minusDays(1)).getBalance());
+        assertEquals(70, ledgerImpl.getBalanceAsOf(schoolId, afterFirst).getBalance());
+        assertEquals(30, ledgerImpl.getBalanceAsOf(factoryId, afterFirst).getBalance());
+        assertEquals(1_070, ledgerImpl.getBalanceAsOf(schoolId, afterSecond).getBalance());
+        assertEquals(1_085, ledgerImpl.getBalanceAsOf(schoolId, afterThird).getBalance());
+        assertEquals(20, ledgerImpl.getBalanceAsOf(factoryId, afterThird).getBalance());
+        assertEquals(walletRepo.findBalanceById(schoolId).orElseThrow().getBalance(),
+                ledgerImpl.getBalanceAsOf(schoolId, afterThird).getBalance());
+        assertEquals(1, ledgerImpl.checkpoint());
+    }
+
+    @Test
+    void balanceAsOfScansOnlyTheTailAfterACheckpoint() {
+        int history = 2_000;
+        walletImpl.depositAll(schoolId, Collections.nCopies(history, 1L));
+        ledgerImpl.checkpoint();
+        walletImpl.deposit(schoolId, 1);
+        LocalDateTime now = LocalDateTime.now();
+        long afterId = balanceCheckpointRepo.findFirstByWalletIdAndAsOfLessThanEqualOrderByLastEntryIdDesc(schoolId, now)
+                .orElseThrow().getLastEntryId();
+
+        assertEquals(history + 1, ledgerImpl.getBalanceAsOf(schoolId, now).getBalance());
+        assertEquals(history + 1, ledgerEntryRepo.sumForWalletAfter(schoolId, 0, now).orElseThrow().getBalance());
+        long tailRows = rowsScannedAfter(afterId, now);
+        long historyRows = rowsScannedAfter(0, now);
+        assertTrue(tailRows < 10, tailRows + " rows scanned after the checkpoint");
+        assertTrue(historyRows > history, historyRows + " rows scanned for the full history");
+    }
+
+    @Test
+    void lagMustOutlastTheLedgerWriteTimeout() {
+        ReflectionTestUtils.setField(ledgerImpl, "lagSeconds", 10L);
+        ReflectionTestUtils.setField(ledgerImpl, "lockTimeoutSeconds", 5);
+        try {
+            IllegalStateException error = assertThrows(IllegalStateException.class, ledgerImpl::validateLag);
+            assertEquals("ledger.checkpoint.lag_seconds (10) must be more than twice wallet.lock_timeout_seconds (5).",
+                    error.getMessage());
+
+            ReflectionTestUtils.setField(ledgerImpl, "lagSeconds", 11L);
+            ledgerImpl.validateLag();
+        } finally {
+            ReflectionTestUtils.setField(ledgerImpl, "lagSeconds", 0L);
+        }
+    }
+
+    // Rows H2 reads for the same range as sumForWalletAfter, through the (wallet_id, id) index
+    private long rowsScannedAfter(long afterId, LocalDateTime asOf) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN ANALYZE SELECT SUM(amount) FROM \"ledger_entry\" "
+                + "WHERE \"wallet_id\" = ? AND id > ? AND \"created_at\" <= ?", String.class, schoolId, afterId, asOf);
+        Matcher scanCount = Pattern.compile("scanCount: (\\d+)").matcher(plan);
+        assertTrue(scanCount.find(), plan);
+        return Long.parseLong(scanCount.group(1));
+    }
+
+    private static LocalDateTime pause() throws InterruptedException {
+        Thread.sleep(20);
+        LocalDateTime now = LocalDateTime.now();
+        Thread.sleep(20);
+        return now;
+    }
+
+}
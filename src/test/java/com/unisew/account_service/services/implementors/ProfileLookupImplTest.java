@@ -0,0 +1,205 @@
+package com.unisew.account_service.services.implementors;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.unisew.account_service.components.EmailIndex;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
+import com.unisew.account_service.models.Account;
+import com.unisew.account_service.repositories.AccountRepo;
+import com.unisew.account_service.requests.CreateProfileRequest;
+import com.unisew.account_service.responses.AccountResponseDTO;
+import com.unisew.account_service.responses.ResponseObject;
+import com.unisew.account_service.services.BanSafetyService;
+import com.unisew.account_service.services.ProfileService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProfileLookupImplTest {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final StubProfileService profileService = new StubProfileService();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AsyncCache<Integer, Map<String, Object>> profileCache = Caffeine.newBuilder().recordStats().buildAsync();
+    private ExecutorService executor;
+    private ProfileLookupImpl profileLookup;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        profileLookup = new ProfileLookupImpl(profileService, executor, profileCache, meterRegistry);
+        ReflectionTestUtils.setField(profileLookup, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(profileLookup, "waitTimeoutMs", 2_000L);
+        profileLookup.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getProfilesMakesOneCallPerChunk() {
+        List<Integer> ids = IntStream.rangeClosed(1, 1_000).boxed().toList();
+
+        Map<Integer, Map<String, Object>> profiles = profileLookup.getProfiles(ids);
+
+        assertEquals(1_000, profiles.size());
+        assertEquals(1_000 / BATCH_SIZE, profileService.batchCalls.get());
+        assertEquals(0, profileService.singleCalls.get());
+        assertTrue(profileService.largestBatch.get() <= BATCH_SIZE);
+    }
+
+    @Test
+    void concurrentLookupsOfOneAccountShareOneCall() throws Exception {
+        profileService.singleDelayMs = 200;
+        int callers = 16;
+        ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Map<String, Object>>> results = IntStream.range(0, callers)
+                    .mapToObj(i -> callerPool.submit(() -> {
+                        start.await();
+                        return profileLookup.getProfile(7);
+                    }))
+                    .toList();
+            start.countDown();
+            for (Future<Map<String, Object>> result : results) {
+                assertEquals(Map.of("partner", "partner-7"), result.get());
+            }
+        } finally {
+            callerPool.shutdownNow();
+        }
+
+        profileLookup.getProfiles(List.of(7, 8));
+
+        assertEquals(1, profileService.singleCalls.get());
+        assertEquals(1, profileService.batchCalls.get());
+        assertEquals(callers, meterRegistry.counter("profile.lookup.saved").count());
+    }
+
+    @Test
+    void lookupsShowUpInCacheStats() {
+        profileLookup.getProfile(7);
+        profileLookup.getProfile(7);
+        profileLookup.getProfiles(List.of(7, 8));
+
+        CacheStats stats = profileCache.synchronous().stats();
+        assertEquals(2, stats.hitCount());
+        assertEquals(2, stats.missCount());
+    }
+
+    @Test
+    void waitersGiveUpOnAHungCall() throws Exception {
+        profileService.singleDelayMs = 1_000;
+        ReflectionTestUtils.setField(profileLookup, "waitTimeoutMs", 100L);
+        Future<Map<String, Object>> first = executor.submit(() -> profileLookup.getProfile(7));
+        while (profileService.singleCalls.get() == 0) {
+            Thread.sleep(5);
+        }
+
+        long started = System.nanoTime();
+        assertThrows(RuntimeException.class, () -> profileLookup.getProfile(7));
+        assertTrue(System.nanoTime() - started < 900_000_000L);
+        assertEquals(Map.of("partner", "partner-7"), first.get());
+    }
+
+    @Test
+    void missingProfilesAreNotCached() {
+        profileService.missing = true;
+        assertNull(profileLookup.getProfile(7));
+
+        profileService.missing = false;
+        assertEquals(Map.of("partner", "partner-7"), profileLookup.getProfile(7));
+        assertEquals(2, profileService.singleCalls.get());
+    }
+
+    @Test
+    void getAllAccountsFillsPartnerFromBatchLookup() {
+        AccountRepo accountRepo = mock(AccountRepo.class);
+        List<Account> accounts = IntStream.rangeClosed(2, 240)
+                .mapToObj(id -> Account.builder()
+                        .id(id)
+                        .email("user" + id + "@gmail.com")
+                        .role(Role.SCHOOL)
+                        .registerDate(LocalDate.now())
+                        .status(Status.ACCOUNT_ACTIVE)
+                        .build())
+                .toList();
+        when(accountRepo.findAllByRoleNot(Role.ADMIN)).thenReturn(accounts);
+
+        AccountImpl accountImpl = new AccountImpl(accountRepo, profileService, profileLookup,
+                Caffeine.newBuilder().build(), mock(BanSafetyService.class), mock(EmailIndex.class));
+
+        ResponseEntity<ResponseObject> response = accountImpl.getAllAccounts();
+
+        @SuppressWarnings("unchecked")
+        List<AccountResponseDTO> data = (List<AccountResponseDTO>) response.getBody().getData();
+        assertEquals(239, data.size());
+        assertEquals("partner-2", data.get(0).getPartner());
+        assertEquals(5, profileService.batchCalls.get());
+        assertEquals(0, profileService.singleCalls.get());
+    }
+
+    private static class StubProfileService implements ProfileService {
+        final AtomicInteger batchCalls = new AtomicInteger();
+        final AtomicInteger singleCalls = new AtomicInteger();
+        final AtomicInteger largestBatch = new AtomicInteger();
+        volatile long singleDelayMs;
+        volatile boolean missing;
+
+        @Override
+        public Map<String, Object> createProfile(CreateProfileRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Map<String, Object>> createProfiles(List<CreateProfileRequest> requests) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, Object> getProfile(int accountId) {
+            singleCalls.incrementAndGet();
+            try {
+                Thread.sleep(singleDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return missing ? null : Map.of("partner", "partner-" + accountId);
+        }
+
+        @Override
+        public Map<Integer, Map<String, Object>> getProfiles(List<Integer> accountIds) {
+            batchCalls.incrementAndGet();
+            largestBatch.accumulateAndGet(accountIds.size(), Math::max);
+            Map<Integer, Map<String, Object>> result = new HashMap<>();
+            accountIds.forEach(id -> result.put(id, Map.of("partner", "partner-" + id)));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.unisew.account_service.services.implementors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unisew.account_service.components.VersionedBalanceCache;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.StatementFormat;
+import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.projections.WalletBalance;
+import com.unisew.account_service.repositories.LedgerJdbcRepo;
+import com.unisew.account_service.repositories.StatementJdbcRepo;
+import com.unisew.account_service.repositories.WalletJdbcRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import({StatementImpl.class, StatementJdbcRepo.class, WalletImpl.class, EscrowImpl.class, TransactionImpl.class,
+        WalletJdbcRepo.class, LedgerJdbcRepo.class, VersionedBalanceCache.class})
+class StatementImplTest extends WalletDataJpaTest {
+
+    @Autowired
+    private StatementImpl statementImpl;
+
+    @Autowired
+    private WalletImpl walletImpl;
+
+    @Autowired
+    private EscrowImpl escrowImpl;
+
+    @Autowired
+    private WalletJdbcRepo walletJdbcRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final LocalDate today = LocalDate.now();
+
+    private int schoolId;
+    private int factoryId;
+
+    @BeforeEach
+    void setUp() {
+        schoolId = createAccount("school@gmail.com", Role.SCHOOL);
+        factoryId = createAccount("factory@gmail.com", Role.GARMENT_FACTORY);
+    }
+
+    @Test
+    void csvStatementCarriesRunningBalanceAndTotals() {
+        walletImpl.deposit(schoolId, 1_000);
+        jdbcTemplate.update("UPDATE \"transaction\" SET \"creation_date\" = ?", Date.valueOf(today.minusDays(40)));
+        walletImpl.transfer(schoolId, factoryId, 300, "fabric, \"blue\"");
+        walletImpl.withdraw(schoolId, 100);
+        walletImpl.transfer(factoryId, schoolId, 50, "=refund");
+
+        List<String> lines = write(schoolId, today.minusDays(7), today, StatementFormat.CSV).lines().toList();
+
+        assertEquals("date,transaction_id,type,status,note,counterparty,item_id,debit,credit,balance", lines.get(0));
+        assertEquals(today.minusDays(7) + ",,OPENING_BALANCE,,,,,,,1000", lines.get(1));
+        assertTrue(lines.get(2).matches(today + ",\\d+,TRANSFER,TXN_COMPLETED,"
+                + "\"Transfer out: fabric, \"\"blue\"\"\",factory@gmail.com,,300,,700"), lines.get(2));
+        assertTrue(lines.get(3).endsWith(",WITHDRAW,TXN_PENDING,Withdraw from wallet,System/Bank,,100,,600"), lines.get(3));
+        assertTrue(lines.get(4).endsWith(",TRANSFER,TXN_COMPLETED,Transfer in: =refund,factory@gmail.com,,,50,650"),
+                lines.get(4));
+        assertEquals(today + ",,CLOSING_BALANCE,,,,,400,50,650", lines.get(5));
+        assertEquals(6, lines.size());
+        assertEquals(650, walletRepo.findBalanceById(schoolId).orElseThrow().getBalance());
+    }
+
+    @Test
+    void ndjsonStatementClosesOnBalancePlusFundsOnHold() throws Exception {
+        walletImpl.deposit(schoolId, 1_000);
+        walletImpl.transfer(schoolId, factoryId, 300, "fabric");
+        escrowImpl.hold(schoolId, factoryId, 200, 7, "order 7");
+
+        List<JsonNode> records = write(schoolId, today.withDayOfMonth(1), today, StatementFormat.NDJSON).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+
+        assertEquals(4, records.size());
+        assertEquals("opening", records.get(0).get("record").asText());
+        assertEquals(0, records.get(0).get("balance").asLong());
+        assertEquals(1_000, records.get(1).get("balance").asLong());
+        assertEquals(-300, records.get(2).get("amount").asLong());
+        assertEquals("factory@gmail.com", records.get(2).get("counterparty").asText());
+        JsonNode closing = records.get(3);
+        assertEquals("closing", closing.get("record").asText());
+        assertEquals(2, closing.get("lines").asLong());
+        assertEquals(300, closing.get("debits").asLong());
+        assertEquals(1_000, closing.get("credits").asLong());
+        WalletBalance wallet = walletRepo.findBalanceById(schoolId).orElseThrow();
+        assertEquals(wallet.getBalance() + wallet.getPendingBalance(), closing.get("balance").asLong());
+    }
+
+    @Test
+    void statementRequestsAreCheckedBeforeStreaming() {
+        assertThrows(IllegalArgumentException.class, () -> statementImpl.checkStatement(schoolId, today, today.minusDays(1)));
+        RuntimeException missing = assertThrows(RuntimeException.class,
+                () -> statementImpl.checkStatement(schoolId + 1_000, today, today));
+        assertEquals("Wallet not found for ID: " + (schoolId + 1_000), missing.getMessage());
+    }
+
+    @Test
+    void largeStatementIsWrittenInChunksAsRowsArrive() {
+        int rows = 100_000;
+        walletJdbcRepo.insertDeposits(Collections.nCopies(rows, schoolId), Collections.nCopies(rows, 1L),
+                Map.of(schoolId, "school@gmail.com"), "Deposit to wallet");
+        CountingOutputStream out = new CountingOutputStream();
+
+        statementImpl.writeStatement(schoolId, today, today, StatementFormat.CSV, out);
+
+        assertEquals(rows + 3, out.lines);
+        assertTrue(out.writes > 100, "written in " + out.writes + " chunks");
+        assertTrue(out.largestWrite <= 8_192, "largest write " + out.largestWrite + " bytes");
+    }
+
+    private String write(Integer walletId, LocalDate from, LocalDate to, StatementFormat format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        statementImpl.writeStatement(walletId, from, to, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long lines;
+        long writes;
+        int largestWrite;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            writes++;
+            largestWrite = Math.max(largestWrite, length);
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
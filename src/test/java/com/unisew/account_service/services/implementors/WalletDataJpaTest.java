@@ -0,0 +1,160 @@
+package com.unisew.account_service.services.implementors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.unisew.account_service.config.CacheConfig;
+import com.unisew.account_service.config.ExecutorConfig;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
+import com.unisew.account_service.models.Account;
+import com.unisew.account_service.models.IdempotencyKey;
+import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.projections.WalletBalance;
+import com.unisew.account_service.repositories.AccountRepo;
+import com.unisew.account_service.repositories.BalanceCheckpointRepo;
+import com.unisew.account_service.repositories.IdempotencyKeyRepo;
+import com.unisew.account_service.repositories.LedgerEntryRepo;
+import com.unisew.account_service.repositories.TransactionRepo;
+import com.unisew.account_service.repositories.WalletHoldRepo;
+import com.unisew.account_service.repositories.WalletRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Runs against its own in-memory database per context, without a wrapping test transaction,
+// so concurrent callers really contend on the rows they touch
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:${random.uuid};MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = WalletDataJpaTest.Config.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+abstract class WalletDataJpaTest {
+
+    // @TestComponent keeps the application's component scan from registering it a second time, while
+    // not being a @TestConfiguration keeps the test context from falling back to AccountServiceApplication
+    // and starting Feign clients, schedulers and seed data.
+    @TestComponent
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = Account.class)
+    @EnableJpaRepositories(basePackageClasses = AccountRepo.class)
+    @Import({CacheConfig.class, ExecutorConfig.class})
+    static class Config {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    protected AccountRepo accountRepo;
+
+    @Autowired
+    protected WalletRepo walletRepo;
+
+    @Autowired
+    protected TransactionRepo transactionRepo;
+
+    @Autowired
+    protected WalletHoldRepo walletHoldRepo;
+
+    @Autowired
+    protected LedgerEntryRepo ledgerEntryRepo;
+
+    @Autowired
+    protected BalanceCheckpointRepo balanceCheckpointRepo;
+
+    @Autowired
+    protected IdempotencyKeyRepo idempotencyKeyRepo;
+
+    @Autowired
+    protected Cache<Integer, WalletBalance> walletBalanceCache;
+
+    @Autowired
+    protected Cache<String, IdempotencyKey> idempotencyCache;
+
+    @BeforeEach
+    void clearTables() {
+        balanceCheckpointRepo.deleteAllInBatch();
+        ledgerEntryRepo.deleteAllInBatch();
+        idempotencyKeyRepo.deleteAllInBatch();
+        walletHoldRepo.deleteAllInBatch();
+        transactionRepo.deleteAllInBatch();
+        walletRepo.deleteAllInBatch();
+        accountRepo.deleteAllInBatch();
+        walletBalanceCache.invalidateAll();
+        idempotencyCache.invalidateAll();
+    }
+
+    protected int createAccount(String email, Role role) {
+        Account account = Account.builder()
+                .email(email)
+                .role(role)
+                .registerDate(LocalDate.now())
+                .status(Status.ACCOUNT_ACTIVE)
+                .build();
+        account.setWallet(Wallet.builder().account(account).build());
+        return accountRepo.save(account).getId();
+    }
+
+    // Releases every thread at once and rethrows the first failure
+    protected static void runConcurrently(int threads, int operationsPerThread, ThreadOperation operation) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int n = 0; n < operationsPerThread; n++) {
+                        operation.run(thread, n);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    protected interface ThreadOperation {
+        void run(int thread, int n) throws Exception;
+    }
+}
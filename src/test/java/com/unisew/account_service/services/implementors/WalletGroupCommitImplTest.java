@@ -0,0 +1,208 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.components.VersionedBalanceCache;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.repositories.LedgerJdbcRepo;
+import com.unisew.account_service.repositories.WalletJdbcRepo;
+import com.unisew.account_service.services.WalletService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@TestPropertySource(properties = "wallet.execution_mode=group_commit")
+@Import({WalletImpl.class, WalletGroupCommitImpl.class, TransactionImpl.class, WalletJdbcRepo.class, LedgerJdbcRepo.class, VersionedBalanceCache.class})
+class WalletGroupCommitImplTest extends WalletDataJpaTest {
+
+    private static final int THREADS = 32;
+    private static final int OPERATIONS_PER_THREAD = 50;
+    private static final int WALLETS = 4;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WalletImpl walletImpl;
+
+    @Autowired
+    private WalletJdbcRepo walletJdbcRepo;
+
+    @Autowired
+    private LedgerJdbcRepo ledgerJdbcRepo;
+
+    @Autowired
+    private VersionedBalanceCache versionedBalanceCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Integer> accountIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        accountIds.clear();
+        for (int i = 0; i < WALLETS; i++) {
+            accountIds.add(createAccount("school" + i + "@gmail.com", Role.SCHOOL));
+        }
+    }
+
+    @Test
+    void groupedDepositsAreExactAndEachCallerGetsItsOwnBalance() throws Exception {
+        assertInstanceOf(WalletGroupCommitImpl.class, walletService);
+        Map<Integer, Set<Long>> balancesSeen = new ConcurrentHashMap<>();
+        DistributionSummary batches = meterRegistry.summary("wallet.group_commit.batch_size");
+        long batchesBefore = batches.count();
+        double depositsBefore = batches.totalAmount();
+
+        runConcurrently(THREADS, OPERATIONS_PER_THREAD, (thread, n) -> {
+            Integer accountId = accountIds.get(thread % WALLETS);
+            long balance = walletService.deposit(accountId, 1).getBalance();
+            balancesSeen.computeIfAbsent(accountId, id -> ConcurrentHashMap.newKeySet()).add(balance);
+        });
+
+        long perWallet = (long) THREADS * OPERATIONS_PER_THREAD / WALLETS;
+        for (Integer accountId : accountIds) {
+            assertEquals(perWallet, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+            assertEquals(perWallet, balancesSeen.get(accountId).size());
+        }
+        assertEquals(perWallet * WALLETS, transactionRepo.count());
+
+        long grouped = batches.count() - batchesBefore;
+        assertEquals(perWallet * WALLETS, (long) (batches.totalAmount() - depositsBefore));
+        assertTrue(grouped < perWallet * WALLETS, grouped + " batches");
+    }
+
+    @Test
+    void depositToMissingWalletFailsAlone() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> walletService.deposit(-1, 5));
+
+        assertEquals("Wallet not found for account ID: -1", e.getMessage());
+        assertEquals(5, walletService.deposit(accountIds.get(0), 5).getBalance());
+    }
+
+    @Test
+    void oneBadDepositDoesNotFailTheRestOfItsBatch() throws Exception {
+        WalletGroupCommitImpl groupCommit = (WalletGroupCommitImpl) walletService;
+        ReflectionTestUtils.setField(groupCommit, "windowMs", 200L);
+        Integer full = accountIds.get(0);
+        walletRepo.credit(full, Long.MAX_VALUE - 10);
+        AtomicInteger failed = new AtomicInteger();
+        try {
+            runConcurrently(WALLETS, 1, (thread, n) -> {
+                if (thread == 0) {
+                    assertThrows(RuntimeException.class, () -> walletService.deposit(full, 100));
+                    failed.incrementAndGet();
+                } else {
+                    assertEquals(5, walletService.deposit(accountIds.get(thread), 5).getBalance());
+                }
+            });
+        } finally {
+            ReflectionTestUtils.setField(groupCommit, "windowMs", 5L);
+        }
+
+        assertEquals(1, failed.get());
+        assertEquals(Long.MAX_VALUE - 10, walletRepo.findBalanceById(full).orElseThrow().getBalance());
+        assertEquals(WALLETS - 1, transactionRepo.count());
+    }
+
+    @Test
+    void committerSurvivesAnError() throws Exception {
+        WalletJdbcRepo failing = mock(WalletJdbcRepo.class);
+        when(failing.creditAll(anyList(), anyList()))
+                .thenThrow(new StackOverflowError())
+                .thenAnswer(invocation -> walletJdbcRepo.creditAll(invocation.getArgument(0), invocation.getArgument(1)));
+        WalletGroupCommitImpl groupCommit = standaloneGroupCommit(failing, 10_000);
+        try {
+            RuntimeException error = assertThrows(RuntimeException.class, () -> groupCommit.deposit(accountIds.get(0), 5));
+            assertInstanceOf(StackOverflowError.class, error.getCause());
+
+            assertEquals(5, groupCommit.deposit(accountIds.get(0), 5).getBalance());
+        } finally {
+            groupCommit.stop();
+        }
+    }
+
+    @Test
+    void stopFailsDepositsStillQueued() throws Exception {
+        WalletJdbcRepo blocking = mock(WalletJdbcRepo.class);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch committing = new CountDownLatch(1);
+        when(blocking.creditAll(anyList(), anyList())).thenAnswer(invocation -> {
+            committing.countDown();
+            release.await();
+            return new int[0];
+        });
+        WalletGroupCommitImpl groupCommit = standaloneGroupCommit(blocking, 10_000);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Wallet> running = callers.submit(() -> groupCommit.deposit(accountIds.get(0), 5));
+            assertTrue(committing.await(5, TimeUnit.SECONDS));
+            Future<Wallet> queued = callers.submit(() -> groupCommit.deposit(accountIds.get(1), 7));
+            awaitQueued(groupCommit);
+
+            groupCommit.stop();
+
+            ExecutionException shutdown = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertEquals("Wallet service is shutting down, please retry.", shutdown.getCause().getMessage());
+            assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+            assertThrows(RuntimeException.class, () -> groupCommit.deposit(accountIds.get(0), 5));
+            assertEquals(0, walletRepo.findBalanceById(accountIds.get(1)).orElseThrow().getBalance());
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    private WalletGroupCommitImpl standaloneGroupCommit(WalletJdbcRepo jdbcRepo, long queueWaitTimeoutMs) {
+        WalletGroupCommitImpl groupCommit = new WalletGroupCommitImpl(walletImpl, walletRepo, jdbcRepo, ledgerJdbcRepo,
+                versionedBalanceCache, accountRepo, transactionTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(groupCommit, "windowMs", 5L);
+        ReflectionTestUtils.setField(groupCommit, "maxBatch", 500);
+        ReflectionTestUtils.setField(groupCommit, "queueCapacity", 100);
+        ReflectionTestUtils.setField(groupCommit, "queueWaitTimeoutMs", queueWaitTimeoutMs);
+        ReflectionTestUtils.setField(groupCommit, "lockTimeoutSeconds", 1);
+        groupCommit.start();
+        return groupCommit;
+    }
+
+    private static void awaitQueued(WalletGroupCommitImpl groupCommit) throws InterruptedException {
+        Collection<?> queue = (Collection<?>) ReflectionTestUtils.getField(groupCommit, "queue");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.isEmpty()) {
+            assertTrue(System.nanoTime() < deadline, "deposit never queued");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.components.VersionedBalanceCache;
+import com.unisew.account_service.enums.PaymentType;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
+import com.unisew.account_service.models.Account;
+import com.unisew.account_service.models.Transaction;
+import com.unisew.account_service.repositories.LedgerJdbcRepo;
+import com.unisew.account_service.repositories.WalletJdbcRepo;
+import com.unisew.account_service.requests.PayoutItem;
+import com.unisew.account_service.requests.PayoutRequest;
+import com.unisew.account_service.responses.PayoutItemResult;
+import com.unisew.account_service.responses.PayoutResponseDTO;
+import com.unisew.account_service.responses.WalletPageDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import({WalletImpl.class, TransactionImpl.class, WalletJdbcRepo.class, LedgerJdbcRepo.class, VersionedBalanceCache.class})
+class WalletImplTest extends WalletDataJpaTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 200;
+
+    @Autowired
+    private WalletImpl walletImpl;
+
+    @Autowired
+    private VersionedBalanceCache versionedBalanceCache;
+
+    private int accountId;
+
+    @BeforeEach
+    void setUp() {
+        accountId = createAccount("school@gmail.com", Role.SCHOOL);
+    }
+
+    @Test
+    void concurrentDepositsLoseNoUpdates() throws Exception {
+        runConcurrently(THREADS, OPERATIONS_PER_THREAD, (thread, n) -> walletImpl.deposit(accountId, 1));
+
+        long expected = (long) THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(expected, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+        assertEquals(expected, transactionRepo.count());
+    }
+
+    @Test
+    void concurrentWithdrawalsNeverOverdraw() throws Exception {
+        long funded = (long) THREADS * OPERATIONS_PER_THREAD / 2;
+        walletRepo.credit(accountId, funded);
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS, OPERATIONS_PER_THREAD, (thread, n) -> {
+            try {
+                walletImpl.withdraw(accountId, 1);
+            } catch (RuntimeException e) {
+                assertEquals("Insufficient balance.", e.getMessage());
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(0, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+        assertEquals(funded, rejected.get());
+        assertEquals(funded, transactionRepo.count());
+    }
+
+    @Test
+    void crossingTransfersNeverDeadlock() throws Exception {
+        int factoryId = createAccount("factory@gmail.com", Role.GARMENT_FACTORY);
+        walletRepo.credit(accountId, 1_000_000);
+        walletRepo.credit(factoryId, 1_000_000);
+        AtomicInteger sequence = new AtomicInteger();
+
+        runConcurrently(THREADS, OPERATIONS_PER_THREAD, (thread, n) -> {
+            boolean forward = sequence.getAndIncrement() % 2 == 0;
+            walletImpl.transfer(forward ? accountId : factoryId, forward ? factoryId : accountId, 1, "settlement");
+        });
+
+        long transfers = (long) THREADS * OPERATIONS_PER_THREAD;
+        long total = walletRepo.findBalanceById(accountId).orElseThrow().getBalance()
+                + walletRepo.findBalanceById(factoryId).orElseThrow().getBalance();
+        assertEquals(2_000_000, total);
+        assertEquals(transfers * 2, transactionRepo.count());
+    }
+
+    @Test
+    void transferReturnsTheRowsItStored() {
+        int factoryId = createAccount("factory@gmail.com", Role.GARMENT_FACTORY);
+        walletRepo.credit(accountId, 500);
+
+        List<Transaction> rows = walletImpl.transfer(accountId, factoryId, 300, "fabric");
+
+        assertEquals(2, transactionRepo.count());
+        for (Transaction row : rows) {
+            Transaction stored = transactionRepo.findById(row.getId()).orElseThrow();
+            assertEquals(stored.getNote(), row.getNote());
+            assertEquals(stored.getWallet().getId(), row.getWallet().getId());
+            assertEquals("school@gmail.com", stored.getSenderName());
+            assertEquals("factory@gmail.com", stored.getReceiverName());
+            assertEquals(Status.TXN_COMPLETED, stored.getStatus());
+        }
+        assertEquals(List.of("Transfer out: fabric", "Transfer in: fabric"), rows.stream().map(Transaction::getNote).toList());
+        assertEquals(List.of(accountId, factoryId), rows.stream().map(row -> row.getWallet().getId()).toList());
+    }
+
+    @Test
+    void payoutPaysEveryRecipientInOneTransaction() {
+        int recipients = 1_000;
+        walletRepo.credit(accountId, 1_000_000);
+        List<PayoutItem> items = new ArrayList<>();
+        for (int i = 0; i < recipients; i++) {
+            items.add(new PayoutItem(createAccount("designer" + i + "@gmail.com", Role.DESIGNER), 100 + i));
+        }
+        long total = items.stream().mapToLong(PayoutItem::getAmount).sum();
+
+        PayoutResponseDTO response = walletImpl.payout(payoutRequest(items));
+
+        assertTrue(response.isCompleted());
+        assertEquals(total, response.getTotal());
+        assertEquals(1_000_000 - total, response.getSourceBalance());
+        assertEquals(1_000_000 - total, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+        for (PayoutItem item : items) {
+            assertEquals(item.getAmount(), walletRepo.findBalanceById(item.getAccountId()).orElseThrow().getBalance());
+        }
+        assertTrue(response.getItems().stream().allMatch(item -> item.getResult().equals("PAID")));
+        assertEquals(recipients * 2L, transactionRepo.count());
+    }
+
+    @Test
+    void payoutWithMissingWalletPaysNobody() {
+        walletRepo.credit(accountId, 1_000);
+        int designerId = createAccount("designer@gmail.com", Role.DESIGNER);
+        int walletlessId = accountRepo.save(Account.builder()
+                .email("walletless@gmail.com")
+                .role(Role.DESIGNER)
+                .registerDate(LocalDate.now())
+                .status(Status.ACCOUNT_ACTIVE)
+                .build()).getId();
+
+        PayoutResponseDTO response = walletImpl.payout(payoutRequest(List.of(
+                new PayoutItem(designerId, 100), new PayoutItem(walletlessId, 100))));
+
+        assertFalse(response.isCompleted());
+        assertEquals(List.of("NOT_APPLIED", "WALLET_NOT_FOUND"),
+                response.getItems().stream().map(PayoutItemResult::getResult).toList());
+        assertEquals(1_000, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+        assertEquals(0, walletRepo.findBalanceById(designerId).orElseThrow().getBalance());
+        assertEquals(0, transactionRepo.count());
+    }
+
+    @Test
+    void payoutBeyondSourceBalancePaysNobody() {
+        walletRepo.credit(accountId, 150);
+        int firstId = createAccount("first@gmail.com", Role.DESIGNER);
+        int secondId = createAccount("second@gmail.com", Role.DESIGNER);
+
+        PayoutResponseDTO response = walletImpl.payout(payoutRequest(List.of(
+                new PayoutItem(firstId, 100), new PayoutItem(secondId, 100))));
+
+        assertFalse(response.isCompleted());
+        assertEquals("Insufficient balance for payout.", response.getMessage());
+        assertEquals(150, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+        assertEquals(0, walletRepo.findBalanceById(firstId).orElseThrow().getBalance());
+        assertEquals(0, transactionRepo.count());
+    }
+
+    @Test
+    void balancePollsAreServedFromCacheUntilAWriteCommits() {
+        walletRepo.credit(accountId, 100);
+        long hits = walletBalanceCache.stats().hitCount();
+
+        assertEquals(100, walletImpl.getBalance(accountId).orElseThrow().getBalance());
+        assertEquals(100, walletImpl.getBalance(accountId).orElseThrow().getBalance());
+        assertEquals(hits + 1, walletBalanceCache.stats().hitCount());
+
+        walletImpl.deposit(accountId, 50);
+        assertEquals(150, walletImpl.getBalance(accountId).orElseThrow().getBalance());
+        walletImpl.withdraw(accountId, 30);
+        assertEquals(120, walletImpl.getBalance(accountId).orElseThrow().getBalance());
+        assertEquals(hits + 1, walletBalanceCache.stats().hitCount());
+        assertTrue(walletImpl.getBalance(accountId + 1_000).isEmpty());
+    }
+
+    @Test
+    void concurrentPollsNeverSeeABalanceOlderThanTheLastCommit() throws Exception {
+        AtomicLong committed = new AtomicLong();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger stale = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long polls = 0;
+        try {
+            List<Future<Long>> pollers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                pollers.add(pool.submit(() -> {
+                    long count = 0;
+                    while (writing.get()) {
+                        long floor = committed.get();
+                        if (walletImpl.getBalance(accountId).orElseThrow().getBalance() < floor) {
+                            stale.incrementAndGet();
+                        }
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+            for (int n = 1; n <= OPERATIONS_PER_THREAD; n++) {
+                walletImpl.deposit(accountId, 1);
+                committed.set(n);
+                assertEquals(n, walletImpl.getBalance(accountId).orElseThrow().getBalance());
+            }
+            writing.set(false);
+            for (Future<Long> poller : pollers) {
+                polls += poller.get();
+            }
+        } finally {
+            writing.set(false);
+            pool.shutdownNow();
+        }
+
+        assertEquals(0, stale.get());
+        assertTrue(polls > OPERATIONS_PER_THREAD, polls + " polls");
+    }
+
+    @Test
+    void disabledCacheReadsEveryPollFromTheDatabase() {
+        walletImpl.deposit(accountId, 100);
+        assertEquals(100, walletImpl.getBalance(accountId).orElseThrow().getBalance());
+        ReflectionTestUtils.setField(versionedBalanceCache, "enabled", false);
+        try {
+            // What another instance's write looks like from here: the row changes, nothing is evicted
+            walletRepo.credit(accountId, 50);
+
+            assertEquals(150, walletImpl.getBalance(accountId).orElseThrow().getBalance());
+        } finally {
+            ReflectionTestUtils.setField(versionedBalanceCache, "enabled", true);
+        }
+    }
+
+    @Test
+    void cachedBalancePollsSkipTheDatabase() {
+        int polls = 20_000;
+        walletImpl.deposit(accountId, 100);
+        walletImpl.getBalance(accountId);
+        long hitsBefore = walletBalanceCache.stats().hitCount();
+        long missesBefore = walletBalanceCache.stats().missCount();
+
+        for (int i = 0; i < polls; i++) {
+            assertEquals(100, walletImpl.getBalance(accountId).orElseThrow().getBalance());
+        }
+
+        assertEquals(polls, walletBalanceCache.stats().hitCount() - hitsBefore);
+        assertEquals(0, walletBalanceCache.stats().missCount() - missesBefore);
+    }
+
+    @Test
+    void walletPagesSeekByIdAndFilterOnBalance() {
+        List<Integer> matching = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            int id = createAccount("wallet" + i + "@gmail.com", Role.SCHOOL);
+            walletRepo.credit(id, i * 10L);
+            if (i * 10L >= 500 && i * 10L <= 2_000) {
+                matching.add(id);
+            }
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        Integer cursor = null;
+        int pages = 0;
+        do {
+            WalletPageDTO page = walletImpl.getWalletPage(cursor, 40, 500L, 2_000L);
+            page.getWallets().forEach(wallet -> {
+                assertTrue(wallet.getBalance() >= 500 && wallet.getBalance() <= 2_000);
+                seen.add(wallet.getId());
+            });
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(matching, seen);
+        assertEquals(4, pages);
+        assertEquals(100, walletImpl.getWalletPage(null, 1_000, null, null).getWallets().size());
+        assertThrows(IllegalArgumentException.class, () -> walletImpl.getWalletPage(null, 20, 100L, 50L));
+    }
+
+    private PayoutRequest payoutRequest(List<PayoutItem> items) {
+        return PayoutRequest.builder()
+                .sourceAccountId(accountId)
+                .paymentType(PaymentType.PLATFORM_DESIGNER)
+                .note("monthly payout")
+                .items(items)
+                .build();
+    }
+}
@@ -0,0 +1,186 @@
+package com.unisew.account_service.services.implementors;
+
+import com.unisew.account_service.components.VersionedBalanceCache;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.models.Wallet;
+import com.unisew.account_service.repositories.LedgerJdbcRepo;
+import com.unisew.account_service.repositories.WalletJdbcRepo;
+import com.unisew.account_service.services.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@TestPropertySource(properties = "wallet.execution_mode=lanes")
+@Import({WalletImpl.class, WalletLaneImpl.class, TransactionImpl.class, WalletJdbcRepo.class, LedgerJdbcRepo.class, VersionedBalanceCache.class})
+class WalletLaneImplTest extends WalletDataJpaTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 200;
+
+    @Autowired
+    private WalletService walletService;
+
+    private int accountId;
+
+    @BeforeEach
+    void setUp() {
+        accountId = createAccount("platform@gmail.com", Role.ADMIN);
+    }
+
+    @Test
+    void laneDepositsAreExactAndEachCallerGetsItsOwnBalance() throws Exception {
+        assertInstanceOf(WalletLaneImpl.class, walletService);
+        Set<Long> balancesSeen = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(THREADS, OPERATIONS_PER_THREAD,
+                (thread, n) -> balancesSeen.add(walletService.deposit(accountId, 1).getBalance()));
+
+        long expected = (long) THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(expected, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+        assertEquals(expected, transactionRepo.count());
+        assertEquals(expected, balancesSeen.size());
+    }
+
+    @Test
+    void mixedLaneOperationsNeverOverdraw() throws Exception {
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS, OPERATIONS_PER_THREAD, (thread, n) -> {
+            if (n % 2 == 0) {
+                walletService.deposit(accountId, 1);
+                return;
+            }
+            try {
+                walletService.withdraw(accountId, 2);
+            } catch (RuntimeException e) {
+                assertEquals("Insufficient balance.", e.getMessage());
+                rejected.incrementAndGet();
+            }
+        });
+
+        long deposits = (long) THREADS * OPERATIONS_PER_THREAD / 2;
+        long withdrawals = deposits - rejected.get();
+        assertEquals(deposits - 2 * withdrawals, walletRepo.findBalanceById(accountId).orElseThrow().getBalance());
+        assertEquals(deposits + withdrawals, transactionRepo.count());
+    }
+
+    @Test
+    void laneSurvivesAnErrorThrownByAnOperation() throws Exception {
+        WalletImpl wallets = mock(WalletImpl.class);
+        when(wallets.withdraw(1, 5L)).thenThrow(new StackOverflowError()).thenReturn(wallet(1, 10));
+        WalletLaneImpl lane = standaloneLane(wallets, 10_000);
+        try {
+            RuntimeException failed = assertThrows(RuntimeException.class, () -> lane.withdraw(1, 5));
+            assertInstanceOf(StackOverflowError.class, failed.getCause());
+
+            assertEquals(10, lane.withdraw(1, 5).getBalance());
+        } finally {
+            lane.stop();
+        }
+    }
+
+    @Test
+    void callerThatGivesUpOnAQueuedOperationKeepsItFromRunning() throws Exception {
+        WalletImpl wallets = mock(WalletImpl.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(wallets.withdraw(1, 5L)).thenAnswer(invocation -> {
+            release.await();
+            return wallet(1, 10);
+        });
+        WalletLaneImpl lane = standaloneLane(wallets, 100);
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            Future<Wallet> running = callers.submit(() -> lane.withdraw(1, 5));
+            verify(wallets, timeout(5_000)).withdraw(1, 5L);
+
+            RuntimeException busy = assertThrows(RuntimeException.class, () -> lane.withdraw(2, 7));
+            assertEquals("Wallet service is busy, please retry.", busy.getMessage());
+
+            release.countDown();
+            assertEquals(10, running.get(5, TimeUnit.SECONDS).getBalance());
+            lane.stop();
+            verify(wallets, never()).withdraw(2, 7L);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void stopFailsOperationsStillQueued() throws Exception {
+        WalletImpl wallets = mock(WalletImpl.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(wallets.withdraw(1, 5L)).thenAnswer(invocation -> {
+            release.await();
+            return wallet(1, 10);
+        });
+        WalletLaneImpl lane = standaloneLane(wallets, 10_000);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Wallet> running = callers.submit(() -> lane.withdraw(1, 5));
+            verify(wallets, timeout(5_000)).withdraw(1, 5L);
+            Future<Wallet> queued = callers.submit(() -> lane.withdraw(2, 7));
+            awaitQueued(lane);
+
+            lane.stop();
+
+            ExecutionException shutdown = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertEquals("Wallet service is shutting down, please retry.", shutdown.getCause().getMessage());
+            assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+            verify(wallets, never()).withdraw(2, 7L);
+            assertThrows(RuntimeException.class, () -> lane.withdraw(1, 5));
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    private static WalletLaneImpl standaloneLane(WalletImpl wallets, long queueWaitTimeoutMs) {
+        WalletLaneImpl lane = new WalletLaneImpl(wallets);
+        ReflectionTestUtils.setField(lane, "laneCount", 1);
+        ReflectionTestUtils.setField(lane, "queueCapacity", 100);
+        ReflectionTestUtils.setField(lane, "maxMerge", 16);
+        ReflectionTestUtils.setField(lane, "queueWaitTimeoutMs", queueWaitTimeoutMs);
+        ReflectionTestUtils.setField(lane, "lockTimeoutSeconds", 1L);
+        lane.start();
+        return lane;
+    }
+
+    private static void awaitQueued(WalletLaneImpl lane) throws InterruptedException {
+        Object[] lanes = (Object[]) ReflectionTestUtils.getField(lane, "lanes");
+        Collection<?> queue = (Collection<?>) ReflectionTestUtils.getField(lanes[0], "queue");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.isEmpty()) {
+            assertTrue(System.nanoTime() < deadline, "operation never queued");
+            Thread.sleep(5);
+        }
+    }
+
+    private static Wallet wallet(int id, long balance) {
+        return Wallet.builder().id(id).balance(balance).pendingBalance(0).build();
+    }
+}
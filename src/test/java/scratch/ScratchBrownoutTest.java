@@ -0,0 +1,68 @@
+package scratch;
+
+import com.sun.net.httpserver.HttpServer;
+import com.unisew.account_service.AccountServiceApplication;
+import com.unisew.account_service.services.ProfileService;
+import com.unisew.account_service.services.BanSafetyService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.*;
+
+@SpringBootTest(classes = AccountServiceApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:bo;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa", "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database=h2", "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "google.client_id=x", "google.client_secret=x", "google.redirect_uri=x", "google.response_type=x", "google.scope=x",
+        "jwt.secret_key=c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0", "jwt.expiration=3600000"
+})
+class ScratchBrownoutTest {
+    static HttpServer server;
+    @Autowired ProfileService profileService;
+    @Autowired BanSafetyService banSafetyService;
+    @Autowired CircuitBreakerRegistry registry;
+
+    @BeforeAll
+    static void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 8085), 0);
+        server.setExecutor(Executors.newFixedThreadPool(200));
+        server.createContext("/", ex -> {
+            try { Thread.sleep(8000); } catch (InterruptedException e) { }
+            byte[] b = "{\"partner\":1}".getBytes();
+            ex.getResponseHeaders().add("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, b.length);
+            ex.getResponseBody().write(b); ex.close();
+        });
+        server.start();
+    }
+    @AfterAll static void stop() { server.stop(0); }
+
+    @Test
+    void brownout() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(60);
+        for (int round = 0; round < 3; round++) {
+            List<Future<long[]>> fs = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                int id = i;
+                fs.add(pool.submit(() -> {
+                    long t = System.nanoTime();
+                    Object r = profileService.getProfile(id);
+                    return new long[]{(System.nanoTime() - t) / 1_000_000, r == null ? 0 : 1};
+                }));
+            }
+            long max = 0, nonNull = 0; List<Long> ts = new ArrayList<>();
+            for (Future<long[]> f : fs) { long[] v = f.get(); ts.add(v[0]); max = Math.max(max, v[0]); nonNull += v[1]; }
+            Collections.sort(ts);
+            System.out.println("ROUND " + round + " p50=" + ts.get(30) + " max=" + max + " nonNull=" + nonNull
+                    + " breakers=" + registry.getAllCircuitBreakers().stream().map(c -> c.getName() + ":" + c.getState()).toList());
+        }
+        long t = System.nanoTime();
+        System.out.println("BAN " + banSafetyService.check(List.of(1), 2) + " in " + (System.nanoTime() - t) / 1_000_000 + "ms");
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,25 @@
+package scratch;
+
+import com.unisew.account_service.AccountServiceApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(classes = AccountServiceApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:ctx;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa", "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database=h2", "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "google.client_id=x", "google.client_secret=x", "google.redirect_uri=x", "google.response_type=x", "google.scope=x",
+        "jwt.secret_key=c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0", "jwt.expiration=3600000"
+})
+class ScratchContextTest {
+    @org.springframework.beans.factory.annotation.Autowired
+    org.springframework.context.ApplicationContext ctx;
+    @Test
+    void contextLoads() {
+        System.out.println("FEIGN CLIENTS " + ctx.getBeansOfType(feign.Client.class));
+        io.micrometer.core.instrument.MeterRegistry r = ctx.getBean(io.micrometer.core.instrument.MeterRegistry.class);
+        r.getMeters().stream().map(m -> m.getId().getName()).filter(n -> n.startsWith("httpcomponents")).distinct().forEach(n -> System.out.println("METER " + n));
+        System.out.println("RT " + ctx.getBean("oauthRestTemplate", org.springframework.web.client.RestTemplate.class).getRequestFactory());
+    }
+}
@@ -0,0 +1,43 @@
+package scratch;
+
+import com.unisew.account_service.AccountServiceApplication;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.repositories.AccountRepo;
+import com.unisew.account_service.requests.CreateAccountRequest;
+import com.unisew.account_service.services.AccountImportService;
+import com.unisew.account_service.services.ProfileService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+@SpringBootTest(classes = AccountServiceApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:imp;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa", "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database=h2", "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=",
+        "google.client_id=x", "google.client_secret=x", "google.redirect_uri=x", "google.response_type=x", "google.scope=x",
+        "jwt.secret_key=c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0", "jwt.expiration=3600000",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ScratchImportTest {
+    @Autowired AccountImportService importService;
+    @Autowired AccountRepo accountRepo;
+    @MockBean ProfileService profileService;
+
+    @Test
+    void run() {
+        List<CreateAccountRequest> reqs = IntStream.range(0, 10_000).mapToObj(i -> CreateAccountRequest.builder().email("User" + i + "@gmail.com").role(Role.SCHOOL).build()).toList();
+        importService.importAccounts(reqs.subList(0, 500));
+        long t = System.nanoTime();
+        var r = importService.importAccounts(reqs);
+        long ms = (System.nanoTime() - t) / 1_000_000;
+        var d = (java.util.Map<?,?>) r.getBody().getData();
+        System.out.println("IMPORT created=" + d.get("created") + " existing=" + ((java.util.Collection<?>) d.get("alreadyRegistered")).size() + " ms=" + ms + " total=" + accountRepo.count());
+        System.out.println("IMPORT csv " + importService.importAccountsCsv("email,role\nnew1@gmail.com,garment_factory\nbad@x.com,nope\n").getBody());
+    }
+}
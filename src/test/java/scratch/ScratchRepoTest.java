@@ -0,0 +1,35 @@
+package scratch;
+
+import com.unisew.account_service.AccountServiceApplication;
+import com.unisew.account_service.enums.Role;
+import com.unisew.account_service.enums.Status;
+import com.unisew.account_service.models.Account;
+import com.unisew.account_service.repositories.AccountRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDate;
+
+@DataJpaTest(properties = {"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect", "spring.jpa.database=h2", "spring.jpa.show-sql=true"})
+@ContextConfiguration(classes = ScratchRepoTest.Cfg.class)
+class ScratchRepoTest {
+    @org.springframework.boot.autoconfigure.SpringBootApplication
+    @org.springframework.boot.autoconfigure.domain.EntityScan("com.unisew.account_service.models")
+    @org.springframework.data.jpa.repository.config.EnableJpaRepositories("com.unisew.account_service.repositories")
+    static class Cfg {}
+
+    @Autowired AccountRepo accountRepo;
+
+    @Test
+    void run() {
+        for (int i = 0; i < 5; i++) accountRepo.save(Account.builder().email("a"+i+"@x").role(i==0?Role.ADMIN:Role.SCHOOL).status(Status.ACCOUNT_ACTIVE).registerDate(LocalDate.now()).build());
+        var p = accountRepo.findPageAfter(0, null, null, null, null, Limit.of(3));
+        System.out.println("PAGE " + p.stream().map(a -> a.getId()+":"+a.getRole()).toList());
+        p = accountRepo.findPageAfter(2, Role.SCHOOL, Status.ACCOUNT_ACTIVE, LocalDate.now().minusDays(1), LocalDate.now(), Limit.of(3));
+        System.out.println("PAGE " + p.stream().map(a -> a.getId()+":"+a.getRole()).toList());
+        System.out.println("SUM " + accountRepo.findSummaryById(2).get().getEmail() + " " + accountRepo.findSummariesByIdIn(java.util.List.of(1,3,99)).size());
+    }
+}